@@ -0,0 +1,66 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code key=value} command line options of the benchmark mains. Arguments starting with {@code --} are
+ * kept aside for the service. Each option is read once; {@link #requireAllRead} rejects unknown ones.
+ */
+final class BenchmarkArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> serviceArgs = new ArrayList<>();
+
+    private BenchmarkArgs() {
+    }
+
+    static BenchmarkArgs parse(String[] args) {
+        BenchmarkArgs parsed = new BenchmarkArgs();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                parsed.serviceArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value or --property=value: " + arg);
+            }
+            parsed.values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return parsed;
+    }
+
+    String string(String key, String defaultValue) {
+        String value = values.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    int integer(String key, int defaultValue) {
+        return Integer.parseInt(string(key, Integer.toString(defaultValue)));
+    }
+
+    long longValue(String key, long defaultValue) {
+        return Long.parseLong(string(key, Long.toString(defaultValue)));
+    }
+
+    double decimal(String key, double defaultValue) {
+        return Double.parseDouble(string(key, Double.toString(defaultValue)));
+    }
+
+    boolean bool(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(string(key, Boolean.toString(defaultValue)));
+    }
+
+    List<String> serviceArgs() {
+        return List.copyOf(serviceArgs);
+    }
+
+    void requireAllRead() {
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+    }
+}
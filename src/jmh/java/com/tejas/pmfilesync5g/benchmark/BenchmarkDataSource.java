@@ -0,0 +1,86 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Postgres connection for benchmarks, configured from the same environment variables as the service.
+ * With {@code BENCH_EMBEDDED_POSTGRES=true} an embedded Postgres is started in the benchmark JVM
+ * instead, so suites run without any local database. Everything is created in the {@value #SCHEMA} schema.
+ */
+final class BenchmarkDataSource {
+
+    static final String SCHEMA = "pm_bench";
+
+    private static EmbeddedPostgres embedded;
+
+    private BenchmarkDataSource() {
+    }
+
+    static PGSimpleDataSource create() throws SQLException {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        if (Boolean.parseBoolean(env("BENCH_EMBEDDED_POSTGRES", "false"))) {
+            dataSource.setServerNames(new String[] {"localhost"});
+            dataSource.setPortNumbers(new int[] {embedded().getPort()});
+            dataSource.setDatabaseName("postgres");
+            dataSource.setUser("postgres");
+        } else {
+            dataSource.setServerNames(new String[] {env("DB_HOST", "localhost")});
+            dataSource.setPortNumbers(new int[] {Integer.parseInt(env("DB_PORT", "5432"))});
+            dataSource.setDatabaseName(env("DB_NAME", "pm_file_sync"));
+            dataSource.setUser(env("DB_USERNAME", "postgres"));
+            dataSource.setPassword(env("DB_PASSWORD", "password"));
+        }
+        dataSource.setCurrentSchema(SCHEMA);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Applies the service's schema migrations to the {@value #SCHEMA} schema, so benchmarks write to the
+     * same partitioned tables as production. Tables left by earlier runs are baselined like a live database.
+     */
+    static void createSyncTables(PGSimpleDataSource dataSource) {
+        Flyway.configure()
+            .dataSource(dataSource)
+            .schemas(SCHEMA)
+            .locations("classpath:db/migration")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .load()
+            .migrate();
+    }
+
+    private static synchronized EmbeddedPostgres embedded() {
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start embedded Postgres", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    embedded.close();
+                } catch (IOException ignored) {
+                    // JVM is exiting
+                }
+            }));
+        }
+        return embedded;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
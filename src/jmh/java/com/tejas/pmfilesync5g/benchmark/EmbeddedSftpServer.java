@@ -0,0 +1,66 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.common.kex.BuiltinDHFactories;
+import org.apache.sshd.server.ServerBuilder;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * In-process SFTP server on a random local port, serving {@code root} to one password user.
+ * <p>
+ * Key exchange is limited to {@code diffie-hellman-group14-sha1}, the only exchange the service's JSch
+ * client completes: it also offers {@code diffie-hellman-group14-sha256}, which JSch 0.1.55 cannot
+ * run, so the server must not pick that one. Looked up by name, as sshd deprecates the constant.
+ */
+final class EmbeddedSftpServer implements AutoCloseable {
+
+    static final String USER = "pm";
+    static final String PASSWORD = "secret";
+
+    private static final String GROUP14_SHA1 = "diffie-hellman-group14-sha1";
+
+    private final SshServer server;
+
+    private EmbeddedSftpServer(SshServer server) {
+        this.server = server;
+    }
+
+    static EmbeddedSftpServer start(Path root) throws IOException {
+        SshServer server = ServerBuilder.builder()
+            .keyExchangeFactories(List.of(ServerBuilder.DH2KEX.apply(BuiltinDHFactories.fromFactoryName(GROUP14_SHA1))))
+            .build();
+        server.setHost("localhost");
+        server.setPort(0);
+
+        SimpleGeneratorHostKeyProvider hostKeys = new SimpleGeneratorHostKeyProvider();
+        hostKeys.setAlgorithm("RSA");
+        server.setKeyPairProvider(hostKeys);
+        server.setPasswordAuthenticator((user, password, session) -> USER.equals(user) && PASSWORD.equals(password));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        server.start();
+        return new EmbeddedSftpServer(server);
+    }
+
+    int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * @return the {@code sftp://} location of {@code path}, relative to the served root
+     */
+    String location(String path) {
+        return "sftp://" + USER + ":" + PASSWORD + "@localhost:" + getPort() + "/" + path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(true);
+    }
+}
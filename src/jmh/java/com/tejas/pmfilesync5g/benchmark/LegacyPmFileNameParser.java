@@ -0,0 +1,41 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex and DateTimeFormatter filename parsing that {@code PmFileNameParser} replaced, kept verbatim
+ * as the baseline it is benchmarked and checked against. It never derived the end time or NF type.
+ */
+final class LegacyPmFileNameParser {
+
+    static final Pattern PM_FILE_PATTERN = Pattern.compile(
+        "A(\\d{8})\\.(\\d{4})([+-]\\d{4})-(\\d{4})([+-]\\d{4})_(\\d{3}-\\d{2}-\\d{5})_.*\\.xml"
+    );
+
+    private LegacyPmFileNameParser() {
+    }
+
+    static PmFileMetadata parse(String fileName) {
+        Matcher matcher = PM_FILE_PATTERN.matcher(fileName);
+        if (matcher.find()) {
+            String timezone = matcher.group(3);
+            try {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+                LocalDateTime localDateTime = LocalDateTime.parse(matcher.group(1) + matcher.group(2), formatter);
+                ZoneOffset zoneOffset = ZoneOffset.of(timezone.substring(0, 3) + ":" + timezone.substring(3));
+                OffsetDateTime time = localDateTime.atOffset(zoneOffset);
+                return new PmFileMetadata(time, null, matcher.group(6), null);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid PM file format: " + fileName, e);
+            }
+        }
+        throw new IllegalArgumentException("Filename does not match PM file pattern: " + fileName);
+    }
+}
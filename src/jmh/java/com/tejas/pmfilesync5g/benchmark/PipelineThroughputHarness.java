@@ -0,0 +1,336 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.Top5gPmFileSyncApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end throughput run of the real pipeline: VES notifications are produced to an embedded Kafka
+ * broker, consumed by the full service context ({@code DynamicKafkaConsumer} through
+ * {@code MessageProcessorService}), listed over SFTP from an {@link EmbeddedSftpServer} and upserted
+ * into the Postgres of {@link BenchmarkDataSource}.
+ * <p>
+ * Options are {@code key=value} arguments, see {@link Options}; arguments starting with {@code --} are
+ * passed to the service as properties, e.g. {@code --app.ingestion.write-behind.enabled=true}.
+ * <p>
+ * Reports notifications/s and files/s from the first send to the last written row, and the latency of
+ * each notification from its send to the newest {@code updated_at} of its rows. {@code updated_at} is
+ * the writing transaction's start, so latencies are slightly understated for bulk writes.
+ */
+public final class PipelineThroughputHarness {
+
+    private static final String TOPIC = "pm.bench.e2e";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private PipelineThroughputHarness() {
+    }
+
+    /**
+     * @param messages     notifications measured
+     * @param warmup       notifications sent and awaited first, to assign partitions and open SFTP sessions
+     * @param archives     tar archives per notification, alternating DU and CU
+     * @param files        XML members per archive
+     * @param memberBytes  size of each member
+     * @param partitions   partitions of the topic
+     * @param threads      consumer threads
+     * @param mode         consumer mode: {@code record}, {@code batch} or {@code pipeline}
+     * @param rate         notifications sent per second, 0 for as fast as the producer goes
+     * @param timeoutSeconds how long to wait for all rows before giving up
+     */
+    record Options(int messages, int warmup, int archives, int files, long memberBytes, int partitions,
+                   int threads, String mode, double rate, long timeoutSeconds, List<String> serviceArgs) {
+
+        static Options parse(String[] args) {
+            BenchmarkArgs parsed = BenchmarkArgs.parse(args);
+            Options options = new Options(
+                parsed.integer("messages", 2000),
+                parsed.integer("warmup", 50),
+                parsed.integer("archives", 2),
+                parsed.integer("files", 50),
+                parsed.longValue("member-bytes", 16384),
+                parsed.integer("partitions", 8),
+                parsed.integer("threads", 4),
+                parsed.string("mode", "record"),
+                parsed.decimal("rate", 0),
+                parsed.longValue("timeout-s", 300),
+                parsed.serviceArgs());
+            parsed.requireAllRead();
+            return options;
+        }
+
+        boolean normalized() {
+            return serviceArgs.stream().anyMatch(arg -> arg.equalsIgnoreCase("--app.storage.mode=normalized"));
+        }
+    }
+
+    /**
+     * Notifications of one run, in send order, and which notification each member file belongs to.
+     */
+    private record Workload(List<String> warmup, List<String> measured, Map<String, Integer> notificationByFile) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path root = Files.createTempDirectory("pm-e2e-sftp");
+
+        PGSimpleDataSource dataSource = BenchmarkDataSource.create();
+        BenchmarkDataSource.createSyncTables(dataSource);
+        execute(dataSource, "TRUNCATE du_pm_file_sync, cu_pm_file_sync, pm_archive CASCADE");
+
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, options.partitions(), TOPIC);
+        kafka.afterPropertiesSet();
+        try (EmbeddedSftpServer sftp = EmbeddedSftpServer.start(root)) {
+            Workload workload = generate(root, sftp, options);
+            System.out.printf("Generated %d notifications with %d archives of %d files on sftp://localhost:%d%n",
+                options.warmup() + options.messages(), options.archives(), options.files(), sftp.getPort());
+
+            ConfigurableApplicationContext context = startService(root, kafka.getBrokersAsString(), dataSource, options);
+            try (KafkaProducer<String, String> producer = producer(kafka.getBrokersAsString())) {
+                long warmupFiles = (long) options.warmup() * options.archives() * options.files();
+                produce(producer, workload.warmup(), 0);
+                awaitRows(dataSource, options, warmupFiles);
+                System.out.println("Warm-up done");
+
+                long totalFiles = warmupFiles + (long) options.messages() * options.archives() * options.files();
+                Instant[] sent = produce(producer, workload.measured(), options.rate());
+                awaitRows(dataSource, options, totalFiles);
+                report(dataSource, options, workload, sent, context.getBean(MeterRegistry.class));
+            } finally {
+                context.close();
+            }
+        } finally {
+            kafka.destroy();
+        }
+    }
+
+    /**
+     * Writes every archive into the SFTP root. Member names are unique across the run, since each one
+     * identifies its notification in the sync tables; the serial number spreads them over many cells.
+     */
+    private static Workload generate(Path root, EmbeddedSftpServer sftp, Options options) throws IOException {
+        String day = LocalDate.now(ZoneOffset.UTC).format(DAY);
+        Files.createDirectories(root.resolve("O-DU"));
+        Files.createDirectories(root.resolve("O-CU"));
+
+        int total = options.warmup() + options.messages();
+        List<String> notifications = new ArrayList<>(total);
+        Map<String, Integer> notificationByFile = new HashMap<>();
+        for (int n = 0; n < total; n++) {
+            List<String> locations = new ArrayList<>(options.archives());
+            for (int a = 0; a < options.archives(); a++) {
+                String nf = a % 2 == 0 ? "DU" : "CU";
+                String path = "O-" + nf + "/RAC-NR-" + (a + 1) + "_" + nf.toLowerCase() + "_pm_logs_" + n + ".tar";
+                List<String> members = new ArrayList<>(options.files());
+                for (int f = 0; f < options.files(); f++) {
+                    String name = String.format("A%s.0000+0000-0015+0000_001-01-%05d_N%d_A%d_NRCELL_%s.xml",
+                        day, f % 100_000, n, a, nf);
+                    members.add(name);
+                    if (n >= options.warmup()) {
+                        notificationByFile.put(name, n - options.warmup());
+                    }
+                }
+                TarFixtures.writeArchive(root.resolve(path), members, options.memberBytes());
+                locations.add(sftp.location(path));
+            }
+            notifications.add(VesEvents.notification("Notification_PM_E2E_" + n, locations));
+        }
+        return new Workload(notifications.subList(0, options.warmup()),
+            notifications.subList(options.warmup(), total), notificationByFile);
+    }
+
+    private static ConfigurableApplicationContext startService(Path root, String brokers, PGSimpleDataSource dataSource,
+                                                               Options options) throws IOException {
+        Path topicConfig = root.resolveSibling(root.getFileName() + "-topic_config.yml");
+        Files.writeString(topicConfig, """
+            topics:
+              - name: "%s"
+                broker: "%s"
+                partitions: %d
+                consumer:
+                  group-id: "pm-bench-e2e"
+                  threads: %d
+                  auto-offset-reset: "earliest"
+                  mode: "%s"
+            global-consumer:
+              key-deserializer: "org.apache.kafka.common.serialization.StringDeserializer"
+              value-deserializer: "org.apache.kafka.common.serialization.StringDeserializer"
+              enable-auto-commit: false
+              session-timeout-ms: 30000
+              max-poll-records: 500
+            topic-management:
+              auto-create-topics: false
+            error-handling:
+              retry:
+                max-attempts: 1
+                mode: "local"
+              dead-letter-topic:
+                enabled: false
+              circuit-breaker:
+                enabled: true
+            """.formatted(TOPIC, brokers, options.partitions(), options.threads(), options.mode()));
+
+        List<String> args = new ArrayList<>(List.of(
+            "--TOPIC_CONFIG_PATH=" + topicConfig,
+            "--app.kafka.topic-config.watch=false",
+            "--app.sftp.simulate-listing=false",
+            "--spring.datasource.url=" + dataSource.getUrl(),
+            "--spring.datasource.username=" + dataSource.getUser(),
+            "--spring.datasource.password=" + (dataSource.getPassword() != null ? dataSource.getPassword() : ""),
+            "--server.port=0",
+            "--logging.file.name=" + root.resolveSibling(root.getFileName() + "-service.log"),
+            "--logging.level.com.tejas.pmfilesync5g=WARN",
+            "--logging.level.org.springframework=WARN",
+            "--logging.level.org.apache.kafka=WARN",
+            "--logging.level.org.apache.sshd=WARN"));
+        args.addAll(options.serviceArgs());
+        return new SpringApplicationBuilder(Top5gPmFileSyncApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static KafkaProducer<String, String> producer(String brokers) {
+        Map<String, Object> config = Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.LINGER_MS_CONFIG, 1);
+        return new KafkaProducer<>(config);
+    }
+
+    /**
+     * Sends {@code notifications} open-loop at {@code rate} per second, or unthrottled when it is 0.
+     *
+     * @return when each notification was handed to the producer
+     */
+    private static Instant[] produce(KafkaProducer<String, String> producer, List<String> notifications, double rate) {
+        Instant[] sent = new Instant[notifications.size()];
+        long start = System.nanoTime();
+        for (int i = 0; i < notifications.size(); i++) {
+            if (rate > 0) {
+                long due = start + (long) (i * 1e9 / rate);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            sent[i] = Instant.now();
+            producer.send(new ProducerRecord<>(TOPIC, "E2E_" + i, notifications.get(i)));
+        }
+        producer.flush();
+        return sent;
+    }
+
+    private static void awaitRows(PGSimpleDataSource dataSource, Options options, long expected)
+            throws SQLException, InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.timeoutSeconds());
+        String sql = "SELECT count(*) FROM (" + rowsQuery(options) + ") f";
+        long rows = 0;
+        while (System.nanoTime() < deadline) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(sql)) {
+                result.next();
+                rows = result.getLong(1);
+            }
+            if (rows >= expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new TimeoutException("Only " + rows + " of " + expected + " rows written after "
+            + options.timeoutSeconds() + "s; see the service log next to the SFTP root");
+    }
+
+    private static void report(PGSimpleDataSource dataSource, Options options, Workload workload, Instant[] sent,
+                               MeterRegistry registry) throws SQLException {
+        Instant[] completed = new Instant[sent.length];
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(rowsQuery(options))) {
+            while (result.next()) {
+                Integer notification = workload.notificationByFile().get(result.getString(1));
+                if (notification == null) {
+                    continue;
+                }
+                Instant updatedAt = result.getTimestamp(2).toInstant();
+                if (completed[notification] == null || updatedAt.isAfter(completed[notification])) {
+                    completed[notification] = updatedAt;
+                }
+            }
+        }
+
+        long[] latencies = new long[sent.length];
+        Instant last = sent[0];
+        for (int i = 0; i < sent.length; i++) {
+            latencies[i] = Math.max(0, Duration.between(sent[i], completed[i]).toMillis());
+            if (completed[i].isAfter(last)) {
+                last = completed[i];
+            }
+        }
+        Arrays.sort(latencies);
+        double seconds = Duration.between(sent[0], last).toNanos() / 1e9;
+        long files = (long) options.messages() * options.archives() * options.files();
+
+        System.out.printf("%nmode=%s partitions=%d threads=%d rate=%s archives=%d files=%d%n", options.mode(),
+            options.partitions(), options.threads(), options.rate() > 0 ? options.rate() + "/s" : "max",
+            options.archives(), options.files());
+        System.out.printf("%d notifications, %d files in %.2f s%n", options.messages(), files, seconds);
+        System.out.printf("Throughput: %.1f msgs/s, %.1f files/s%n", options.messages() / seconds, files / seconds);
+        System.out.printf("Latency ms: p50=%d p90=%d p99=%d max=%d%n", percentile(latencies, 0.50),
+            percentile(latencies, 0.90), percentile(latencies, 0.99), latencies[latencies.length - 1]);
+
+        // Where the time went inside the service, warm-up included
+        Map<String, double[]> stages = new TreeMap<>();
+        for (Timer timer : registry.find("pm.sync.stage.duration").timers()) {
+            double[] totals = stages.computeIfAbsent(timer.getId().getTag("stage"), stage -> new double[2]);
+            totals[0] += timer.count();
+            totals[1] += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        stages.forEach((stage, totals) -> System.out.printf("  %-22s count=%-8d mean=%.2f ms%n",
+            stage, (long) totals[0], totals[0] > 0 ? totals[1] / totals[0] : 0));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static String rowsQuery(Options options) {
+        return options.normalized()
+            ? "SELECT file_path, updated_at FROM pm_archive_file"
+            : "SELECT file_path, updated_at FROM du_pm_file_sync UNION ALL SELECT file_path, updated_at FROM cu_pm_file_sync";
+    }
+
+    private static void execute(PGSimpleDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
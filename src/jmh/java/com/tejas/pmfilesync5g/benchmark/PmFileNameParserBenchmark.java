@@ -0,0 +1,60 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.service.PmFileNameParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one archive's worth of PM file names with the hand-written parser and with the regex and
+ * DateTimeFormatter code it replaced, {@link LegacyPmFileNameParser}. Run with {@code -prof gc} to compare
+ * allocation per name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PmFileNameParserBenchmark {
+
+    private static final int NAMES = 1024;
+
+    private String[] fileNames;
+
+    @Setup
+    public void setUp() {
+        fileNames = new String[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            fileNames[i] = String.format("A20250827.1800+0530-1815+0530_001-01-%05d_NRCELL_%s.xml",
+                i * 97 % 100_000, i % 2 == 0 ? "DU" : "CU");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void handWritten(Blackhole blackhole) {
+        for (String fileName : fileNames) {
+            blackhole.consume(PmFileNameParser.parse(fileName));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void legacyRegex(Blackhole blackhole) {
+        for (String fileName : fileNames) {
+            blackhole.consume(LegacyPmFileNameParser.parse(fileName));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+import com.tejas.pmfilesync5g.service.PmFileNameParser;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Differential check of {@link PmFileNameParser} against {@link LegacyPmFileNameParser}: on every name
+ * both must succeed with the same start time, offset and serial number, or fail with the same message.
+ * The end time and NF type, which the legacy code never derived, are compared with a java.time and regex
+ * oracle. Runs a fixed list of edge cases with their expected values, then {@code names} random
+ * mutations of valid names; exits with status 1 on any difference.
+ * <p>
+ * Options are {@code key=value} arguments: {@code names} (default 1000000) and {@code seed} (default 1).
+ */
+public final class PmFileNameParserCheck {
+
+    private static final Pattern ORACLE = Pattern.compile(
+        "A\\d{8}\\.\\d{4}[+-]\\d{4}-(\\d{4})([+-]\\d{4})_\\d{3}-\\d{2}-\\d{5}_(.*)\\.xml");
+    private static final DateTimeFormatter HOUR_MINUTE = DateTimeFormatter.ofPattern("HHmm");
+    private static final int MAX_REPORTED = 20;
+
+    private static final String[] SEEDS = {
+        "A20250827.1800+0530-1815+0530_001-01-64160_NRCELL_DU.xml",
+        "A20250827.2345-0800-0000-0800_123-45-67890_NRCELL_CU.xml",
+        "A20240229.0000+0000-2400+0000_000-00-00000_GNB_du.xml",
+        "/pm/O-DU/A20251231.2300+1400-2315+1400_999-99-99999_X_Y_CU.xml",
+    };
+
+    private final List<String> failures = new ArrayList<>();
+    private long checked;
+
+    private PmFileNameParserCheck() {
+    }
+
+    public static void main(String[] args) {
+        BenchmarkArgs parsed = BenchmarkArgs.parse(args);
+        int names = parsed.integer("names", 1_000_000);
+        long seed = parsed.longValue("seed", 1);
+        parsed.requireAllRead();
+        // Most mutations are rejected, each with a warning
+        ((Logger) LoggerFactory.getLogger(PmFileNameParser.class)).setLevel(Level.ERROR);
+
+        PmFileNameParserCheck check = new PmFileNameParserCheck();
+        check.edgeCases();
+        check.mutations(names, new Random(seed));
+
+        System.out.printf("Checked %d names, %d differences%n", check.checked, check.failures.size());
+        check.failures.stream().limit(MAX_REPORTED).forEach(failure -> System.out.println("  " + failure));
+        if (!check.failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private void edgeCases() {
+        String tail = "_001-01-64160_NRCELL_DU.xml";
+        expect("A20250827.1800+0530-1815+0530" + tail,
+            "2025-08-27T18:00+05:30", "2025-08-27T18:15+05:30", NfType.DU);
+        // find(): leftmost match anywhere in the name, after a false start
+        expect("/data/A2025.A20250827.1800+0530-1815+0530_001-01-64160_NRCELL_CU.xml",
+            "2025-08-27T18:00+05:30", "2025-08-27T18:15+05:30", NfType.CU);
+        // Greedy tail: the last ".xml" on the line, the NF type token before it, either case
+        expect("A20250827.1800+0000-1815+0000_001-01-64160_DU.xml_CU.xml.gz",
+            "2025-08-27T18:00Z", "2025-08-27T18:15Z", NfType.CU);
+        expect("A20250827.1800+0000-1815+0000_001-01-64160_du.xml\nB.xml",
+            "2025-08-27T18:00Z", "2025-08-27T18:15Z", NfType.DU);
+        expect("A20250827.1800+0000-1815+0000_001-01-64160_.xml",
+            "2025-08-27T18:00Z", "2025-08-27T18:15Z", null);
+        expect("A20250827.1800+0000-1815+0000_001-01-64160_XDU.xml",
+            "2025-08-27T18:00Z", "2025-08-27T18:15Z", null);
+        // SMART resolution clamps the day to the month's length
+        expect("A20250231.1000+0000-1015+0000" + tail, "2025-02-28T10:00Z", "2025-02-28T10:15Z", NfType.DU);
+        expect("A20240231.1000+0000-1015+0000" + tail, "2024-02-29T10:00Z", "2024-02-29T10:15Z", NfType.DU);
+        expect("A20250431.1000+0000-1015+0000" + tail, "2025-04-30T10:00Z", "2025-04-30T10:15Z", NfType.DU);
+        // 24:00 is midnight at the end of the day, for the start and the end
+        expect("A20251231.2400+0000-0015+0000" + tail, "2026-01-01T00:00Z", "2026-01-01T00:15Z", NfType.DU);
+        expect("A20250827.2345+0000-2400+0000" + tail, "2025-08-27T23:45Z", "2025-08-28T00:00Z", NfType.DU);
+        // Intervals crossing midnight, also when the offsets differ
+        expect("A20250827.2345+0000-0000+0000" + tail, "2025-08-27T23:45Z", "2025-08-28T00:00Z", NfType.DU);
+        expect("A20250827.2330+0000-0030+0100" + tail, "2025-08-27T23:30Z", "2025-08-28T00:30+01:00", NfType.DU);
+        expect("A20250827.0030+0100-2345+0000" + tail, "2025-08-27T00:30+01:00", "2025-08-27T23:45Z", NfType.DU);
+        // Offsets up to +-18:00
+        expect("A20250827.1800+1800-1815+1800" + tail, "2025-08-27T18:00+18:00", "2025-08-27T18:15+18:00", NfType.DU);
+        expect("A20250827.1800-0000-1815-0000" + tail, "2025-08-27T18:00Z", "2025-08-27T18:15Z", NfType.DU);
+        // An invalid end part leaves the end time unset rather than failing
+        expect("A20250827.1800+0000-9999+0000" + tail, "2025-08-27T18:00Z", null, NfType.DU);
+        expect("A20250827.1800+0000-1815+1900" + tail, "2025-08-27T18:00Z", null, NfType.DU);
+
+        for (String invalid : List.of(
+            "A20250832.1800+0000-1815+0000" + tail,
+            "A20251301.1800+0000-1815+0000" + tail,
+            "A00000101.1800+0000-1815+0000" + tail,
+            "A20250827.2401+0000-1815+0000" + tail,
+            "A20250827.1860+0000-1815+0000" + tail,
+            "A20250827.1800+1801-1815+0000" + tail,
+            "A20250827.1800+0060-1815+0000" + tail,
+            "A20250827.1800+0000-1815+0000_001-01-6416_NRCELL_DU.xml",
+            "A20250827.1800+0000-1815+0000_001-01-64160_NRCELL_DU.XML",
+            "A20250827.1800+0000-1815+0000_001-01-64160_NRCELL_DU.xm\nl.xml",
+            "")) {
+            expectFailure(invalid);
+        }
+    }
+
+    /**
+     * Mutates the seed names with the edits that reach the parser's branches: digits at the field
+     * boundaries, signs and separators, inserted and deleted characters, line terminators and extra
+     * ".xml" and "A" occurrences.
+     */
+    private void mutations(int names, Random random) {
+        String alphabet = "0123456789012345678901+-_.A\nDUCcdux";
+        for (int n = 0; n < names; n++) {
+            StringBuilder name = new StringBuilder(SEEDS[random.nextInt(SEEDS.length)]);
+            int edits = 1 + random.nextInt(3);
+            for (int e = 0; e < edits; e++) {
+                int at = random.nextInt(name.length() + 1);
+                switch (random.nextInt(6)) {
+                    case 0 -> {
+                        if (at < name.length()) name.setCharAt(at, alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                    case 1 -> name.insert(at, alphabet.charAt(random.nextInt(alphabet.length())));
+                    case 2 -> {
+                        if (at < name.length()) name.deleteCharAt(at);
+                    }
+                    case 3 -> name.insert(at, random.nextBoolean() ? ".xml" : "A");
+                    case 4 -> name.insert(0, SEEDS[random.nextInt(SEEDS.length)].substring(0, random.nextInt(44)));
+                    default -> {
+                        // Extreme values for a date, time or offset field
+                        int field = new int[] {5, 7, 10, 12, 15, 17, 20, 22, 25, 27}[random.nextInt(10)];
+                        int start = name.indexOf("A") + field;
+                        if (start >= 1 && start + 2 <= name.length()) {
+                            String[] values = {"00", "12", "13", "18", "24", "28", "29", "30", "31", "32", "59", "60", "99"};
+                            name.replace(start, start + 2, values[random.nextInt(values.length)]);
+                        }
+                    }
+                }
+            }
+            compare(name.toString());
+        }
+    }
+
+    private void expect(String fileName, String time, String endTime, NfType nfType) {
+        PmFileMetadata metadata = compare(fileName);
+        if (metadata == null) {
+            failures.add("expected a match: " + printable(fileName));
+            return;
+        }
+        OffsetDateTime expectedEnd = endTime == null ? null : OffsetDateTime.parse(endTime);
+        if (!metadata.time().equals(OffsetDateTime.parse(time)) || !Objects.equals(metadata.endTime(), expectedEnd)
+            || metadata.nfType() != nfType) {
+            failures.add("expected " + time + " / " + endTime + " / " + nfType + ", got " + metadata + ": " + printable(fileName));
+        }
+    }
+
+    private void expectFailure(String fileName) {
+        if (compare(fileName) != null) {
+            failures.add("expected a failure: " + printable(fileName));
+        }
+    }
+
+    /**
+     * @return the parsed metadata, or null if both parsers rejected the name
+     */
+    private PmFileMetadata compare(String fileName) {
+        checked++;
+        PmFileMetadata legacy;
+        PmFileMetadata parsed;
+        String legacyError = null;
+        String parsedError = null;
+        try {
+            legacy = LegacyPmFileNameParser.parse(fileName);
+        } catch (IllegalArgumentException e) {
+            legacy = null;
+            legacyError = e.getMessage();
+        }
+        try {
+            parsed = PmFileNameParser.parse(fileName);
+        } catch (IllegalArgumentException e) {
+            parsed = null;
+            parsedError = e.getMessage();
+        }
+
+        if (legacy == null || parsed == null) {
+            if (legacy != null || parsed != null || !legacyError.equals(parsedError)) {
+                failures.add("legacy " + (legacy != null ? legacy : legacyError) + ", parser "
+                    + (parsed != null ? parsed : parsedError) + ": " + printable(fileName));
+            }
+            return parsed;
+        }
+        // equals also compares the offsets
+        if (!legacy.time().equals(parsed.time()) || !legacy.serialNumber().equals(parsed.serialNumber())) {
+            failures.add("legacy " + legacy + ", parser " + parsed + ": " + printable(fileName));
+        }
+        Matcher matcher = ORACLE.matcher(fileName);
+        if (!matcher.find()) {
+            failures.add("oracle does not match: " + printable(fileName));
+            return parsed;
+        }
+        OffsetDateTime endTime = oracleEndTime(parsed.time(), matcher.group(1), matcher.group(2));
+        NfType nfType = oracleNfType(matcher.group(3));
+        if (!Objects.equals(endTime, parsed.endTime()) || nfType != parsed.nfType()) {
+            failures.add("oracle " + endTime + " / " + nfType + ", parser " + parsed + ": " + printable(fileName));
+        }
+        return parsed;
+    }
+
+    /**
+     * The first end time on or after the start date that is after the start.
+     */
+    private static OffsetDateTime oracleEndTime(OffsetDateTime start, String hourMinute, String offset) {
+        LocalTime time;
+        ZoneOffset zoneOffset;
+        try {
+            time = "2400".equals(hourMinute) ? LocalTime.MIDNIGHT : LocalTime.parse(hourMinute, HOUR_MINUTE);
+            zoneOffset = ZoneOffset.of(offset.substring(0, 3) + ":" + offset.substring(3));
+        } catch (DateTimeException e) {
+            return null;
+        }
+        OffsetDateTime end = OffsetDateTime.of(start.toLocalDate(), time, zoneOffset);
+        return end.isAfter(start) ? end : end.plusDays(1);
+    }
+
+    private static NfType oracleNfType(String tail) {
+        String token = tail.substring(tail.lastIndexOf('_') + 1);
+        if (token.equalsIgnoreCase("DU")) {
+            return NfType.DU;
+        }
+        return token.equalsIgnoreCase("CU") ? NfType.CU : null;
+    }
+
+    private static String printable(String fileName) {
+        return '"' + fileName.replace("\n", "\\n").replace("\r", "\\r") + '"';
+    }
+}
@@ -0,0 +1,103 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.service.TarHeaderWalker;
+import com.tejas.pmfilesync5g.service.WindowedRangeReader;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Builds ustar archives for benchmarks. Member data is left as holes, so multi-GB archives are
+ * created in milliseconds as sparse files while keeping their real offsets and sizes.
+ */
+final class TarFixtures {
+
+    private TarFixtures() {
+    }
+
+    static void writeSparseArchive(Path path, long archiveBytes, long memberBytes) throws IOException {
+        long memberCount = Math.max(1, archiveBytes / (TarHeaderWalker.BLOCK_SIZE + TarHeaderWalker.paddedSize(memberBytes)));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long position = 0;
+            for (long i = 0; i < memberCount; i++) {
+                String name = String.format("A20250827.1800+0530-1815+0530_001-01-%05d_NRCELL_DU.xml", i % 100_000);
+                file.seek(position);
+                file.write(header(name, memberBytes));
+                position += TarHeaderWalker.BLOCK_SIZE + TarHeaderWalker.paddedSize(memberBytes);
+            }
+            // Two zero blocks terminate the archive
+            file.setLength(position + 2L * TarHeaderWalker.BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * Writes a sparse archive with the given member names, each {@code memberBytes} long.
+     */
+    static void writeArchive(Path path, List<String> memberNames, long memberBytes) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long position = 0;
+            for (String name : memberNames) {
+                file.seek(position);
+                file.write(header(name, memberBytes));
+                position += TarHeaderWalker.BLOCK_SIZE + TarHeaderWalker.paddedSize(memberBytes);
+            }
+            file.setLength(position + 2L * TarHeaderWalker.BLOCK_SIZE);
+        }
+    }
+
+    static byte[] header(String name, long size) {
+        byte[] header = new byte[TarHeaderWalker.BLOCK_SIZE];
+        put(header, 0, name.getBytes(StandardCharsets.UTF_8));
+        put(header, 100, "0000644\0".getBytes(StandardCharsets.US_ASCII));
+        put(header, 108, "0000000\0".getBytes(StandardCharsets.US_ASCII));
+        put(header, 116, "0000000\0".getBytes(StandardCharsets.US_ASCII));
+        put(header, 124, String.format("%011o\0", size).getBytes(StandardCharsets.US_ASCII));
+        put(header, 136, "00000000000\0".getBytes(StandardCharsets.US_ASCII));
+        header[156] = '0';
+        put(header, 257, "ustar\0".getBytes(StandardCharsets.US_ASCII));
+        put(header, 263, "00".getBytes(StandardCharsets.US_ASCII));
+        
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        put(header, 148, String.format("%06o\0 ", checksum).getBytes(StandardCharsets.US_ASCII));
+        return header;
+    }
+
+    private static void put(byte[] target, int offset, byte[] value) {
+        System.arraycopy(value, 0, target, offset, value.length);
+    }
+
+    /**
+     * Local stand-in for the SFTP reader: same windowing, positional reads from a local file.
+     */
+    static final class WindowedFileReader extends WindowedRangeReader {
+
+        private final FileChannel channel;
+
+        WindowedFileReader(FileChannel channel, int windowSize) {
+            super(windowSize);
+            this.channel = channel;
+        }
+
+        @Override
+        protected int fetch(long position, byte[] buffer, int length) throws IOException {
+            ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position()) < 0) {
+                    break;
+                }
+            }
+            return target.position();
+        }
+    }
+}
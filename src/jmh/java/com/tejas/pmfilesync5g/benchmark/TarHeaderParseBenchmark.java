@@ -0,0 +1,60 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.service.TarHeaderWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of parsing tar headers, with the archive held in memory so no I/O is measured.
+ * {@link TarListingBenchmark} covers the I/O side on multi-GB archives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarHeaderParseBenchmark {
+
+    @Param({"100", "3000"})
+    public int members;
+
+    private static final int MEMBER_BYTES = 2048;
+
+    private byte[] archive;
+
+    @Setup
+    public void setUp() {
+        int stride = TarHeaderWalker.BLOCK_SIZE + (int) TarHeaderWalker.paddedSize(MEMBER_BYTES);
+        archive = new byte[members * stride + 2 * TarHeaderWalker.BLOCK_SIZE];
+        for (int i = 0; i < members; i++) {
+            String name = String.format("A20250827.1800+0530-1815+0530_001-01-%05d_NRCELL_DU.xml", i);
+            byte[] header = TarFixtures.header(name, MEMBER_BYTES);
+            System.arraycopy(header, 0, archive, i * stride, header.length);
+        }
+    }
+
+    @Benchmark
+    public List<TarHeaderWalker.Entry> walkInMemory() throws Exception {
+        return TarHeaderWalker.list((position, buffer, offset, length) -> {
+            if (position >= archive.length) {
+                return -1;
+            }
+            int n = (int) Math.min(length, archive.length - position);
+            System.arraycopy(archive, (int) position, buffer, offset, n);
+            return n;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.service.TarHeaderWalker;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists large local archives two ways: the header walker seeking past member data, and a full
+ * sequential scan that reads every byte, which is what {@code tar -tf} does on the EMS and what
+ * streaming the archive to the client would cost. {@code bytesRead} reports the bytes each
+ * approach pulls from storage, i.e. what would cross the wire over SFTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TarListingBenchmark {
+
+    @Param({"1073741824", "4294967296"})
+    public long archiveBytes;
+
+    @Param({"65536", "4194304"})
+    public long memberBytes;
+
+    @Param({"32768"})
+    public int windowBytes;
+
+    private Path archive;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Transfer {
+        public long bytesRead;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesRead = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createArchive() throws IOException {
+        archive = Files.createTempFile("pm-bench-", ".tar");
+        TarFixtures.writeSparseArchive(archive, archiveBytes, memberBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException {
+        Files.deleteIfExists(archive);
+    }
+
+    @Benchmark
+    public int headerWalk(Transfer transfer) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive)) {
+            TarFixtures.WindowedFileReader reader = new TarFixtures.WindowedFileReader(channel, windowBytes);
+            int members = TarHeaderWalker.list(reader).size();
+            transfer.bytesRead += reader.getBytesFetched();
+            return members;
+        }
+    }
+
+    @Benchmark
+    public int sequentialScan(Transfer transfer) throws IOException {
+        int members = 0;
+        byte[] buffer = new byte[64 * 1024];
+        long nextHeader = 0;
+        long position = 0;
+        try (FileChannel channel = FileChannel.open(archive); InputStream in = Channels.newInputStream(channel)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                // Headers stay block aligned, so they never straddle a 64 KiB read
+                while (nextHeader >= position && nextHeader < position + n) {
+                    int offset = (int) (nextHeader - position);
+                    if (buffer[offset] == 0) {
+                        transfer.bytesRead += position + n;
+                        return members;
+                    }
+                    long size = Long.parseLong(new String(buffer, offset + 124, 11).trim(), 8);
+                    members++;
+                    nextHeader += TarHeaderWalker.BLOCK_SIZE + TarHeaderWalker.paddedSize(size);
+                }
+                position += n;
+            }
+        }
+        transfer.bytesRead += position;
+        return members;
+    }
+}
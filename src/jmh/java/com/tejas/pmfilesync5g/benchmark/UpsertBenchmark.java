@@ -0,0 +1,127 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileRecord;
+import com.tejas.pmfilesync5g.repository.PmFileSyncBulkRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the set-based native upsert with the legacy per-file SELECT then INSERT/UPDATE path.
+ * <p>
+ * Runs against the Postgres configured by DB_HOST/DB_PORT/DB_NAME/DB_USERNAME/DB_PASSWORD, inside a
+ * scratch {@code pm_bench} schema so the service tables are never touched. The legacy path is replayed
+ * with plain JDBC, so it excludes Hibernate dirty-checking cost and is a lower bound for the JPA path.
+ * {@code reingest=true} pre-populates the table so every row hits the conflict/update branch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UpsertBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean reingest;
+
+    private PGSimpleDataSource dataSource;
+    private PmFileSyncBulkRepository repository;
+    private List<PmFileRecord> records;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws SQLException {
+        dataSource = BenchmarkDataSource.create();
+        repository = new PmFileSyncBulkRepository(new JdbcTemplate(dataSource));
+        BenchmarkDataSource.createSyncTables(dataSource);
+
+        UUID rsyncId = UUID.randomUUID();
+        OffsetDateTime time = OffsetDateTime.parse("2025-08-27T18:00+05:30");
+        records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String serialNumber = String.format("001-01-%05d", i % 100_000);
+            String filePath = "A20250827.1800+0530-1815+0530_" + serialNumber + "_NRCELL_" + i + "_DU.xml";
+            records.add(new PmFileRecord(rsyncId, time, serialNumber, filePath));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE du_pm_file_sync");
+        }
+        if (reingest) {
+            repository.upsert(NfType.DU, records);
+        }
+    }
+
+    @Benchmark
+    public int nativeUpsert() {
+        return repository.upsert(NfType.DU, records);
+    }
+
+    @Benchmark
+    public int legacyFindThenSave() throws SQLException {
+        int affected = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                 "SELECT id FROM du_pm_file_sync WHERE file_path = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO du_pm_file_sync (id, rsync_id, time, serial_number, file_path, status, created_at, updated_at) "
+                     + "VALUES (?, ?, ?, ?, ?, 0, now(), now())");
+             PreparedStatement update = connection.prepareStatement(
+                 "UPDATE du_pm_file_sync SET rsync_id = ?, time = ?, serial_number = ?, status = 0, "
+                     + "created_at = now(), updated_at = now() WHERE id = ?")) {
+            connection.setAutoCommit(false);
+            for (PmFileRecord record : records) {
+                Timestamp time = Timestamp.from(record.time().toInstant());
+                select.setString(1, record.filePath());
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        update.setObject(1, record.rsyncId());
+                        update.setTimestamp(2, time);
+                        update.setString(3, record.serialNumber());
+                        update.setObject(4, rs.getObject(1));
+                        affected += update.executeUpdate();
+                    } else {
+                        insert.setObject(1, UUID.randomUUID());
+                        insert.setObject(2, record.rsyncId());
+                        insert.setTimestamp(3, time);
+                        insert.setString(4, record.serialNumber());
+                        insert.setString(5, record.filePath());
+                        affected += insert.executeUpdate();
+                    }
+                }
+            }
+            connection.commit();
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tejas.pmfilesync5g.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tejas.pmfilesync5g.config.ObjectMapperConfig;
+import com.tejas.pmfilesync5g.dto.VesEvent;
+import com.tejas.pmfilesync5g.dto.VesNotification;
+import com.tejas.pmfilesync5g.service.VesNotificationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts VES notifications through the service's configured ObjectMapper: full {@link VesEvent}
+ * binding against the streaming {@link VesNotificationReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VesEventDeserializationBenchmark {
+
+    @Param({"1", "24"})
+    public int locations;
+
+    private ObjectMapper objectMapper;
+    private VesNotificationReader reader;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapperConfig().objectMapper();
+        reader = new VesNotificationReader(objectMapper);
+        message = VesEvents.notification(locations);
+    }
+
+    @Benchmark
+    public VesEvent fullBinding() throws Exception {
+        return objectMapper.readValue(message, VesEvent.class);
+    }
+
+    @Benchmark
+    public VesNotification streaming() throws Exception {
+        return reader.read(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.tejas.pmfilesync5g.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,13 +9,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${KAFKA_BOOTSTRAP_SERVERS:localhost:9092}")
     private String defaultBootstrapServers;
 
@@ -23,16 +29,23 @@ public class KafkaConsumerConfig {
     }
 
     public ConsumerFactory<String, String> createConsumerFactory(String bootstrapServers, String groupId) {
+        return createConsumerFactory(bootstrapServers, groupId, "latest");
+    }
+
+    public ConsumerFactory<String, String> createConsumerFactory(String bootstrapServers, String groupId, String autoOffsetReset) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         // Manual acknowledgment - no auto commit interval needed
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
-        return new DefaultKafkaConsumerFactory<>(props);
+        DefaultKafkaConsumerFactory<String, String> factory = new DefaultKafkaConsumerFactory<>(props);
+        // Binds the client metrics of every consumer, including per-partition records-lag gauges
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.tejas.pmfilesync5g.config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@RequiredArgsConstructor
+public class KafkaProducerConfig {
+
+    private final TopicConfiguration topicConfiguration;
+
+    public ProducerFactory<String, String> createProducerFactory(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        
+        TopicConfiguration.GlobalProducer global = topicConfiguration.getGlobalProducer();
+        if (global != null) {
+            if (global.getAcks() != null) {
+                props.put(ProducerConfig.ACKS_CONFIG, global.getAcks());
+            }
+            props.put(ProducerConfig.RETRIES_CONFIG, global.getRetries());
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, global.getBatchSize());
+            props.put(ProducerConfig.LINGER_MS_CONFIG, global.getLingerMs());
+            props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, global.getBufferMemory());
+        }
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    public KafkaTemplate<String, String> createKafkaTemplate(String bootstrapServers) {
+        return new KafkaTemplate<>(createProducerFactory(bootstrapServers));
+    }
+}
@@ -33,6 +33,36 @@ public class TopicConfiguration {
         private String groupId;
         private int threads;
         private String autoOffsetReset;
+        private ListenerMode mode = ListenerMode.RECORD;
+        private PipelineConfig pipeline = new PipelineConfig();
+    }
+    
+    /**
+     * How a topic's container hands records to the processor.
+     * RECORD processes and acknowledges each record on its own;
+     * BATCH ingests a whole poll in one bulk operation and acknowledges once per poll;
+     * PIPELINE hands records to virtual-thread workers and commits up to the highest contiguous completed offset.
+     */
+    public enum ListenerMode {
+        RECORD,
+        BATCH,
+        PIPELINE
+    }
+    
+    @Data
+    public static class PipelineConfig {
+        private int maxInFlight = 1000;
+        private PipelineOrdering ordering = PipelineOrdering.KEY;
+    }
+    
+    /**
+     * Which records a pipeline keeps in order.
+     * PARTITION runs the records of a partition one after another;
+     * KEY only orders records sharing a key within a partition, and runs records without a key freely.
+     */
+    public enum PipelineOrdering {
+        PARTITION,
+        KEY
     }
     
     @Data
@@ -85,22 +115,34 @@ public class TopicConfiguration {
     
     @Data
     public static class RetryConfig {
-        private int maxAttempts;
-        private int backoffDelay;
-        private double backoffMultiplier;
+        private int maxAttempts = 3;
+        private int backoffDelay = 1000;
+        private double backoffMultiplier = 2.0;
+        private RetryMode mode = RetryMode.TOPIC;
+        private String topicSuffix = ".retry";
+    }
+    
+    /**
+     * Where failed records wait for their next attempt.
+     * TOPIC republishes them to {@code <topic><topic-suffix>-<n>} delay topics consumed by their own containers;
+     * LOCAL keeps them in an in-process delay queue (for embedded setups; pending retries are lost on restart).
+     */
+    public enum RetryMode {
+        TOPIC,
+        LOCAL
     }
     
     @Data
     public static class DeadLetterTopic {
         private boolean enabled;
-        private String suffix;
+        private String suffix = ".dlq";
     }
     
     @Data
     public static class CircuitBreaker {
         private boolean enabled;
-        private int failureThreshold;
-        private int timeout;
+        private int failureThreshold = 5;
+        private int timeout = 30000;
     }
     
     @Data
@@ -0,0 +1,246 @@
+package com.tejas.pmfilesync5g.consumer;
+
+import com.tejas.pmfilesync5g.service.PipelineMetrics;
+import com.tejas.pmfilesync5g.service.SftpSessionPool;
+import com.tejas.pmfilesync5g.service.SftpTransferScheduler;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses consumption before the DB pool or SFTP capacity runs dry, instead of letting consumer threads
+ * block on a connection until they miss their poll deadline.
+ * <p>
+ * Every {@code interval-ms} it samples threads waiting for a Hikari connection, SFTP operations queued
+ * for a transfer slot and the mean DB upsert time since the last sample. If any is at or above its high
+ * watermark, another {@code pause-step} fraction of the main topics' partitions is paused; once all are
+ * at or below their low watermarks for {@code resume-after-ticks} samples in a row, the longest paused
+ * step is resumed. Between the watermarks nothing changes, so consumption settles at what the pipeline
+ * sustains instead of flapping. Paused consumers keep polling, so their groups do not rebalance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BackpressureController {
+
+    private final DynamicKafkaConsumer dynamicKafkaConsumer;
+    private final DataSource dataSource;
+    private final SftpTransferScheduler transferScheduler;
+    private final SftpSessionPool sessionPool;
+    private final PipelineMetrics metrics;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.kafka.backpressure.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.kafka.backpressure.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${app.kafka.backpressure.db-pending-high:4}")
+    private int dbPendingHigh;
+
+    @Value("${app.kafka.backpressure.db-pending-low:0}")
+    private int dbPendingLow;
+
+    @Value("${app.kafka.backpressure.sftp-queued-high:128}")
+    private int sftpQueuedHigh;
+
+    @Value("${app.kafka.backpressure.sftp-queued-low:32}")
+    private int sftpQueuedLow;
+
+    @Value("${app.kafka.backpressure.upsert-latency-high-ms:5000}")
+    private long upsertLatencyHighMs;
+
+    @Value("${app.kafka.backpressure.upsert-latency-low-ms:1000}")
+    private long upsertLatencyLowMs;
+
+    @Value("${app.kafka.backpressure.pause-step:0.25}")
+    private double pauseStep;
+
+    @Value("${app.kafka.backpressure.resume-after-ticks:3}")
+    private int resumeAfterTicks;
+
+    private enum Pressure {
+        HIGH,
+        HOLD,
+        LOW
+    }
+
+    private record Signals(int dbPending, int sftpQueued, double upsertLatencyMs) {
+    }
+
+    // Paused partitions, longest paused first; only touched by the ticker thread
+    private final Deque<TopicPartition> paused = new ArrayDeque<>();
+    private PipelineMetrics.StageTotal lastUpsert;
+    private int clearTicks;
+    private int pauseCursor;
+
+    private volatile Signals lastSignals = new Signals(0, 0, Double.NaN);
+    private volatile Pressure pressure = Pressure.LOW;
+    private volatile int pausedCount;
+
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Kafka backpressure controller disabled");
+            return;
+        }
+        Gauge.builder("pm.sync.backpressure.paused.partitions", this, controller -> controller.pausedCount)
+            .description("Partitions paused because the DB pool or SFTP capacity is saturated")
+            .register(meterRegistry);
+
+        lastUpsert = metrics.stageTotal(PipelineMetrics.Stage.DB_UPSERT);
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kafka-backpressure");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    void tick() {
+        try {
+            Signals signals = sample();
+            Pressure current = classify(signals);
+            lastSignals = signals;
+            pressure = current;
+
+            // Restarted or resized topics forget their pauses
+            paused.removeIf(partition -> !dynamicKafkaConsumer.isPausedForBackpressure(partition));
+            switch (current) {
+                case HIGH -> {
+                    clearTicks = 0;
+                    pauseStep(signals);
+                }
+                case HOLD -> clearTicks = 0;
+                case LOW -> {
+                    if (!paused.isEmpty() && ++clearTicks >= resumeAfterTicks) {
+                        clearTicks = 0;
+                        resumeStep(signals);
+                    }
+                }
+            }
+            pausedCount = paused.size();
+        } catch (Exception e) {
+            log.warn("Backpressure check failed", e);
+        }
+    }
+
+    private Signals sample() {
+        PipelineMetrics.StageTotal upsert = metrics.stageTotal(PipelineMetrics.Stage.DB_UPSERT);
+        double upsertLatencyMs = upsert.meanMsSince(lastUpsert);
+        lastUpsert = upsert;
+        return new Signals(dbPending(), transferScheduler.getQueued(), upsertLatencyMs);
+    }
+
+    /**
+     * No upsert finishing in a window gives no latency; a DB too slow to finish any shows up as pending threads.
+     */
+    private Pressure classify(Signals signals) {
+        if (signals.dbPending() >= dbPendingHigh || signals.sftpQueued() >= sftpQueuedHigh
+                || signals.upsertLatencyMs() >= upsertLatencyHighMs) {
+            return Pressure.HIGH;
+        }
+        if (signals.dbPending() <= dbPendingLow && signals.sftpQueued() <= sftpQueuedLow
+                && !(signals.upsertLatencyMs() > upsertLatencyLowMs)) {
+            return Pressure.LOW;
+        }
+        return Pressure.HOLD;
+    }
+
+    private void pauseStep(Signals signals) {
+        List<TopicPartition> consuming = dynamicKafkaConsumer.getConsumingPartitions();
+        if (consuming.isEmpty()) {
+            return;
+        }
+        int step = stepSize(consuming.size() + paused.size());
+        // Rotate through the partitions so the same ones do not always fall behind
+        int count = Math.min(step, consuming.size());
+        for (int i = 0; i < count; i++) {
+            TopicPartition partition = consuming.get((pauseCursor + i) % consuming.size());
+            dynamicKafkaConsumer.pauseForBackpressure(partition);
+            paused.addLast(partition);
+        }
+        pauseCursor = (pauseCursor + count) % consuming.size();
+        log.warn("Backpressure: paused {} more partitions, {} of {} paused (db pending {}, sftp queued {}, upsert {} ms)",
+            count, paused.size(), consuming.size() + paused.size() - count, signals.dbPending(), signals.sftpQueued(),
+            format(signals.upsertLatencyMs()));
+    }
+
+    private void resumeStep(Signals signals) {
+        int step = stepSize(dynamicKafkaConsumer.getConsumingPartitions().size() + paused.size());
+        int resumed = 0;
+        while (resumed < step && !paused.isEmpty()) {
+            if (dynamicKafkaConsumer.resumeFromBackpressure(paused.pollFirst())) {
+                resumed++;
+            }
+        }
+        log.info("Backpressure: resumed {} partitions, {} still paused (db pending {}, sftp queued {}, upsert {} ms)",
+            resumed, paused.size(), signals.dbPending(), signals.sftpQueued(), format(signals.upsertLatencyMs()));
+    }
+
+    private int stepSize(int partitions) {
+        return Math.max(1, (int) Math.ceil(partitions * pauseStep));
+    }
+
+    private int dbPending() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                // Null until the pool has started
+                HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read Hikari pool state", e);
+        }
+        return 0;
+    }
+
+    private static String format(double ms) {
+        return Double.isNaN(ms) ? "-" : String.format("%.0f", ms);
+    }
+
+    /**
+     * Current pressure, the signals it was judged on and how many partitions are held back.
+     */
+    public Map<String, Object> getStats() {
+        Signals signals = lastSignals;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pressure", pressure);
+        stats.put("pausedPartitions", pausedCount);
+        stats.put("dbPending", signals.dbPending());
+        stats.put("sftpQueued", signals.sftpQueued());
+        stats.put("sftpActiveLeases", sessionPool.getActiveLeases());
+        stats.put("upsertLatencyMs", Double.isNaN(signals.upsertLatencyMs()) ? null : signals.upsertLatencyMs());
+        return stats;
+    }
+}
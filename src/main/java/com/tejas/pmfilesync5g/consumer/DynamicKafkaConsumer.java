@@ -2,23 +2,42 @@ package com.tejas.pmfilesync5g.consumer;
 
 import com.tejas.pmfilesync5g.config.KafkaConsumerConfig;
 import com.tejas.pmfilesync5g.config.TopicConfiguration;
+import com.tejas.pmfilesync5g.dto.TopicReloadResult;
+import com.tejas.pmfilesync5g.exception.MessageProcessingException;
+import com.tejas.pmfilesync5g.exception.SftpHostUnavailableException;
 import com.tejas.pmfilesync5g.service.MessageProcessorService;
+import com.tejas.pmfilesync5g.service.SftpCircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
 import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Component
@@ -28,12 +47,45 @@ public class DynamicKafkaConsumer {
     private final TopicConfiguration topicConfiguration;
     private final MessageProcessorService messageProcessorService;
     private final KafkaConsumerConfig kafkaConsumerConfig;
+    private final RetryRouter retryRouter;
+    private final SftpCircuitBreaker sftpCircuitBreaker;
+    
+    private static final String RETRY_GROUP_SUFFIX = "-retry";
+    private static final long MAX_NACK_SLEEP_MS = 30_000;
+    private static final long RETRY_POLL_TIMEOUT_MS = 250;
+    private static final long CONTAINER_STOP_TIMEOUT_MS = 30_000;
+    
+    @Value("${app.kafka.consumer.pipeline-shutdown-timeout-ms:30000}")
+    private long pipelineShutdownTimeoutMs;
+    
+    @Value("${app.kafka.error-handling.failed-redelivery-delay-ms:5000}")
+    private long failedRedeliveryDelayMs;
     
     private final Map<String, MessageListenerContainer> activeContainers = new ConcurrentHashMap<>();
+    private final Map<String, TopicConfiguration.TopicConfig> activeTopics = new ConcurrentHashMap<>();
+    private final Map<String, RecordPipeline> pipelines = new ConcurrentHashMap<>();
+    private final Map<String, Set<TopicPartition>> pausedByHost = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> pausedForBackpressure = ConcurrentHashMap.newKeySet();
+    // Registering a pause and pausing, or unregistering and resuming, happen together under this lock, so a
+    // resume never misses a partition paused concurrently
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    
+    private enum Outcome {
+        HANDLED,
+        PARKED,
+        FAILED
+    }
+    
+    private enum Change {
+        NONE,
+        RESIZE,
+        RESTART
+    }
 
     @PostConstruct
     public void initializeConsumers() {
         log.info("Initializing dynamic Kafka consumers from topic configuration...");
+        sftpCircuitBreaker.addListener(this::onBreakerStateChange);
         
         List<TopicConfiguration.TopicConfig> topics = topicConfiguration.getTopics();
         if (topics == null || topics.isEmpty()) {
@@ -50,10 +102,188 @@ public class DynamicKafkaConsumer {
         log.info("Successfully initialized {} dynamic consumers", activeContainers.size());
     }
     
-    private void createConsumerForTopic(TopicConfiguration.TopicConfig topic) {
+    /**
+     * Applies a reloaded topic list to the running consumers: topics that appeared are started, topics
+     * that disappeared are stopped, a changed {@code threads} resizes the topic's containers in place, and
+     * any other consumer setting change restarts just that topic. Unchanged topics keep their containers,
+     * so their consumer groups never rebalance.
+     */
+    public synchronized TopicReloadResult reconcileTopics(List<TopicConfiguration.TopicConfig> topics) {
+        Map<String, TopicConfiguration.TopicConfig> desired = new LinkedHashMap<>();
+        for (TopicConfiguration.TopicConfig topic : topics) {
+            if (desired.putIfAbsent(topic.getName(), topic) != null) {
+                log.warn("Topic {} is configured more than once, keeping the first entry", topic.getName());
+            }
+        }
+        
+        List<String> started = new ArrayList<>();
+        List<String> stopped = new ArrayList<>();
+        List<String> restarted = new ArrayList<>();
+        List<String> resized = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        
+        for (String topicName : List.copyOf(activeTopics.keySet())) {
+            if (!desired.containsKey(topicName)) {
+                stopTopic(topicName);
+                stopped.add(topicName);
+            }
+        }
+        
+        for (TopicConfiguration.TopicConfig topic : desired.values()) {
+            TopicConfiguration.TopicConfig running = activeTopics.get(topic.getName());
+            if (running == null) {
+                if (createConsumerForTopic(topic)) {
+                    started.add(topic.getName());
+                }
+                continue;
+            }
+            switch (diff(running, topic)) {
+                case NONE -> {
+                    activeTopics.put(topic.getName(), topic);
+                    unchanged.add(topic.getName());
+                }
+                case RESIZE -> {
+                    resizeTopic(topic);
+                    resized.add(topic.getName());
+                }
+                case RESTART -> {
+                    stopTopic(topic.getName());
+                    if (createConsumerForTopic(topic)) {
+                        restarted.add(topic.getName());
+                    }
+                }
+            }
+        }
+        
+        log.info("Reloaded topic configuration: started {}, stopped {}, restarted {}, resized {}, unchanged {}",
+            started, stopped, restarted, resized, unchanged);
+        return new TopicReloadResult(started, stopped, restarted, resized, unchanged);
+    }
+    
+    /**
+     * Only settings the containers were built from count; {@code partitions} and {@code description}
+     * do not affect a running consumer.
+     */
+    private static Change diff(TopicConfiguration.TopicConfig running, TopicConfiguration.TopicConfig desired) {
+        TopicConfiguration.ConsumerConfig current = running.getConsumer();
+        TopicConfiguration.ConsumerConfig next = desired.getConsumer();
+        boolean sameConsumer = Objects.equals(running.getBroker(), desired.getBroker())
+            && Objects.equals(current.getGroupId(), next.getGroupId())
+            && Objects.equals(current.getAutoOffsetReset(), next.getAutoOffsetReset())
+            && current.getMode() == next.getMode()
+            && Objects.equals(current.getPipeline(), next.getPipeline());
+        if (!sameConsumer) {
+            return Change.RESTART;
+        }
+        return current.getThreads() != next.getThreads() ? Change.RESIZE : Change.NONE;
+    }
+    
+    /**
+     * Restarts the topic's main and retry containers with the new concurrency. Only the topic's own
+     * consumer groups rebalance; a PIPELINE topic keeps its workers.
+     */
+    private void resizeTopic(TopicConfiguration.TopicConfig topic) {
+        int threads = topic.getConsumer().getThreads();
+        List<String> containerNames = containerNames(topic.getName());
+        List<MessageListenerContainer> containers = containerNames.stream()
+            .map(activeContainers::get)
+            .filter(Objects::nonNull)
+            .toList();
+        forgetPausedPartitions(containerNames);
+        stopContainers(containers);
+        for (MessageListenerContainer container : containers) {
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+                concurrent.setConcurrency(threads);
+            }
+            container.start();
+        }
+        activeTopics.put(topic.getName(), topic);
+        log.info("Resized consumers for topic: {} to {} threads", topic.getName(), threads);
+    }
+    
+    private void stopTopic(String topicName) {
+        List<String> containerNames = containerNames(topicName);
+        List<MessageListenerContainer> containers = new ArrayList<>();
+        for (String containerName : containerNames) {
+            MessageListenerContainer container = activeContainers.remove(containerName);
+            if (container != null) {
+                containers.add(container);
+            }
+        }
+        stopContainers(containers);
+        RecordPipeline pipeline = pipelines.remove(topicName);
+        if (pipeline != null) {
+            pipeline.close(pipelineShutdownTimeoutMs);
+        }
+        forgetPausedPartitions(containerNames);
+        activeTopics.remove(topicName);
+        log.info("Stopped consumers for topic: {}", topicName);
+    }
+    
+    /**
+     * Stops the containers concurrently. The retry tiers of a topic share one consumer group, so stopping
+     * them one by one would make each wait for the rebalance the previous one triggered.
+     */
+    private void stopContainers(List<MessageListenerContainer> containers) {
+        CountDownLatch stopped = new CountDownLatch(containers.size());
+        for (MessageListenerContainer container : containers) {
+            try {
+                container.stop(stopped::countDown);
+            } catch (Exception e) {
+                stopped.countDown();
+                log.error("Error stopping consumer container {}", container.getListenerId(), e);
+            }
+        }
         try {
-            log.info("Creating consumer for topic: {} with {} threads on broker: {}", 
-                topic.getName(), topic.getConsumer().getThreads(), topic.getBroker());
+            if (!stopped.await(CONTAINER_STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Consumer containers did not stop within {} ms", CONTAINER_STOP_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private List<String> containerNames(String topicName) {
+        List<String> names = new ArrayList<>();
+        names.add(topicName);
+        names.addAll(retryRouter.retryTopics(topicName));
+        return names;
+    }
+    
+    /**
+     * A restarted container starts unpaused; if its SFTP host is still down the next record pauses it again,
+     * and the backpressure controller re-pauses it if the pipeline is still saturated.
+     */
+    private void forgetPausedPartitions(List<String> topicNames) {
+        pauseLock.lock();
+        try {
+            pausedByHost.values().forEach(partitions -> partitions.removeIf(partition -> topicNames.contains(partition.topic())));
+            pausedForBackpressure.removeIf(partition -> topicNames.contains(partition.topic()));
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+    
+    /**
+     * Topics with running consumers, with the settings they were started or last resized with.
+     */
+    public Map<String, Map<String, Object>> getActiveTopics() {
+        Map<String, Map<String, Object>> topics = new HashMap<>();
+        activeTopics.forEach((topicName, topic) -> {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("broker", topic.getBroker());
+            settings.put("groupId", topic.getConsumer().getGroupId());
+            settings.put("threads", topic.getConsumer().getThreads());
+            settings.put("mode", topic.getConsumer().getMode());
+            topics.put(topicName, settings);
+        });
+        return topics;
+    }
+    
+    private boolean createConsumerForTopic(TopicConfiguration.TopicConfig topic) {
+        try {
+            log.info("Creating {} consumer for topic: {} with {} threads on broker: {}", 
+                topic.getConsumer().getMode(), topic.getName(), topic.getConsumer().getThreads(), topic.getBroker());
             
             ConsumerFactory<String, String> consumerFactory = kafkaConsumerConfig.createConsumerFactory(
                 topic.getBroker(), topic.getConsumer().getGroupId());
@@ -63,59 +293,396 @@ public class DynamicKafkaConsumer {
             containerProps.setClientId(topic.getName() + "-consumer");
             containerProps.setAckMode(ContainerProperties.AckMode.MANUAL);
             
+            RecordPipeline pipeline = topic.getConsumer().getMode() == TopicConfiguration.ListenerMode.PIPELINE
+                ? new RecordPipeline(topic.getName(), topic.getConsumer().getPipeline(), this::processPipelined)
+                : null;
+            if (pipeline != null) {
+                containerProps.setConsumerRebalanceListener(pipeline);
+            }
+            
             ConcurrentMessageListenerContainer<String, String> container = 
                 new ConcurrentMessageListenerContainer<>(consumerFactory, containerProps);
             
             container.setConcurrency(topic.getConsumer().getThreads());
             
-            container.setupMessageListener(new AcknowledgingMessageListener<String, String>() {
-                @Override
-                public void onMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
-                    processMessage(record.value(), record.topic(), acknowledgment);
-                }
-            });
+            if (pipeline != null) {
+                container.setupMessageListener(pipeline.listener());
+                pipeline.attach(container);
+                pipelines.put(topic.getName(), pipeline);
+            } else if (topic.getConsumer().getMode() == TopicConfiguration.ListenerMode.BATCH) {
+                container.setupMessageListener(new BatchAcknowledgingMessageListener<String, String>() {
+                    @Override
+                    public void onMessage(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+                        processBatch(records, topic.getName(), acknowledgment);
+                    }
+                });
+            } else {
+                container.setupMessageListener(new AcknowledgingMessageListener<String, String>() {
+                    @Override
+                    public void onMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+                        processMessage(record, acknowledgment);
+                    }
+                });
+            }
             
+            retryRouter.ensureTopics(topic);
             container.start();
             activeContainers.put(topic.getName(), container);
             
+            for (String retryTopic : retryRouter.retryTopics(topic.getName())) {
+                createRetryConsumer(topic, retryTopic);
+            }
+            
+            activeTopics.put(topic.getName(), topic);
             log.info("Successfully created and started consumer for topic: {}", topic.getName());
+            return true;
             
         } catch (Exception e) {
             log.error("Failed to create consumer for topic: {}", topic.getName(), e);
+            // Do not leave half the topic's containers running untracked
+            stopTopic(topic.getName());
+            return false;
+        }
+    }
+    
+    /**
+     * Consumes one retry tier of a topic. Records are held back with a nack until their backoff has
+     * elapsed; tier records are appended in due order, so only the head of a partition ever waits.
+     * Tier consumers start from the earliest offset so retries published before they joined are not skipped.
+     */
+    private void createRetryConsumer(TopicConfiguration.TopicConfig topic, String retryTopic) {
+        String groupId = topic.getConsumer().getGroupId() + RETRY_GROUP_SUFFIX;
+        ConsumerFactory<String, String> consumerFactory = kafkaConsumerConfig.createConsumerFactory(
+            topic.getBroker(), groupId, "earliest");
+        
+        ContainerProperties containerProps = new ContainerProperties(retryTopic);
+        containerProps.setGroupId(groupId);
+        containerProps.setClientId(retryTopic + "-consumer");
+        containerProps.setAckMode(ContainerProperties.AckMode.MANUAL);
+        // A nacked partition resumes on the next poll, so the poll timeout bounds how late a retry runs
+        containerProps.setPollTimeout(RETRY_POLL_TIMEOUT_MS);
+        
+        ConcurrentMessageListenerContainer<String, String> container = 
+            new ConcurrentMessageListenerContainer<>(consumerFactory, containerProps);
+        container.setConcurrency(topic.getConsumer().getThreads());
+        container.setupMessageListener(new AcknowledgingMessageListener<String, String>() {
+            @Override
+            public void onMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+                long remainingMs = retryRouter.remainingDelayMs(record);
+                if (remainingMs > 0) {
+                    acknowledgment.nack(Duration.ofMillis(Math.min(remainingMs, MAX_NACK_SLEEP_MS)));
+                    return;
+                }
+                processMessage(record, acknowledgment);
+            }
+        });
+        
+        container.start();
+        activeContainers.put(retryTopic, container);
+        log.info("Started retry consumer for topic: {}", retryTopic);
+    }
+    
+    private void processMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        switch (handle(record, acknowledgment != null)) {
+            // Only acknowledge once the record was processed or handed to the retry tiers
+            case HANDLED -> {
+                if (acknowledgment != null) acknowledgment.acknowledge();
+                log.debug("Acknowledged message from topic: {}", record.topic());
+            }
+            // Seek back to the record; its partition is paused until the SFTP host recovers
+            case PARKED -> acknowledgment.nack(Duration.ZERO);
+            // Seek back to the record; acknowledging a later one would commit past it
+            case FAILED -> {
+                if (acknowledgment != null) acknowledgment.nack(failedRedeliveryDelay());
+            }
         }
     }
     
-    private void processMessage(String message, String topicName, Acknowledgment acknowledgment) {
+    private Duration failedRedeliveryDelay() {
+        return Duration.ofMillis(Math.min(failedRedeliveryDelayMs, MAX_NACK_SLEEP_MS));
+    }
+    
+    /**
+     * Processes one record, handing it to the retry tiers or the DLQ on failure. A record whose SFTP
+     * host is behind an open circuit breaker pauses its partition; it is then either left for redelivery
+     * ({@code redeliverWhenParked}) or parked in the retry tiers.
+     */
+    private Outcome handle(ConsumerRecord<String, String> record, boolean redeliverWhenParked) {
+        String topicName = RetryRouter.originalTopic(record);
+        String message = record.value();
         if (message == null || message.isEmpty()) {
+            // Empty messages are acknowledged to avoid reprocessing
             log.warn("Received empty message from topic: {}, skipping", topicName);
-            // Acknowledge empty messages to avoid reprocessing
-            if (acknowledgment != null) acknowledgment.acknowledge();
-            return;
+            return Outcome.HANDLED;
         }
         
         try {
             log.debug("Processing message from topic: {}", topicName);
             messageProcessorService.processMessage(message, topicName);
-            // Only acknowledge after successful processing
-            if (acknowledgment != null) acknowledgment.acknowledge();
-            log.debug("Successfully processed and acknowledged message from topic: {}", topicName);
+            return Outcome.HANDLED;
         } catch (Exception ex) {
-            // Do not acknowledge - message will be redelivered; rely on Retryable in service
-            log.error("Error processing message from topic: {}, message will be retried", topicName, ex);
+            return handleFailure(record, ex, redeliverWhenParked);
         }
     }
     
-    @PreDestroy
-    public void stopAllConsumers() {
-        log.info("Stopping all dynamic consumers...");
-        activeContainers.values().forEach(container -> {
+    private Outcome handleFailure(ConsumerRecord<String, String> record, Exception ex, boolean redeliverWhenParked) {
+        SftpHostUnavailableException unavailable = SftpHostUnavailableException.find(ex);
+        if (unavailable != null) {
+            pauseForHost(record, unavailable.getHost());
+            if (redeliverWhenParked) {
+                return Outcome.PARKED;
+            }
+        }
+        try {
+            retryRouter.handleFailure(record, ex);
+            return Outcome.HANDLED;
+        } catch (Exception routeEx) {
+            log.error("Error processing message from topic: {} and could not route it for retry, seeking back to it",
+                record.topic(), routeEx);
+            return Outcome.FAILED;
+        }
+    }
+    
+    private void pauseForHost(ConsumerRecord<String, String> record, String host) {
+        MessageListenerContainer container = activeContainers.get(record.topic());
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        if (container == null) {
+            return;
+        }
+        pauseLock.lock();
+        try {
+            if (!pausedByHost.computeIfAbsent(host, h -> ConcurrentHashMap.newKeySet()).add(partition)) {
+                return;
+            }
+            container.pausePartition(partition);
+        } finally {
+            pauseLock.unlock();
+        }
+        
+        log.warn("Paused partition {} while SFTP host {} is unavailable", partition, host);
+        // The breaker may have closed before the partition was registered
+        if (!sftpCircuitBreaker.isOpen(host)) {
+            resumeForHost(host);
+        }
+    }
+    
+    private void onBreakerStateChange(String host, SftpCircuitBreaker.State state) {
+        if (state == SftpCircuitBreaker.State.CLOSED) {
+            resumeForHost(host);
+        }
+    }
+    
+    private void resumeForHost(String host) {
+        pauseLock.lock();
+        try {
+            Set<TopicPartition> partitions = pausedByHost.remove(host);
+            if (partitions == null) {
+                return;
+            }
+            for (TopicPartition partition : partitions) {
+                MessageListenerContainer container = activeContainers.get(partition.topic());
+                // A partition also held back by the backpressure controller stays paused until it releases it
+                if (container != null && !pausedForBackpressure.contains(partition) && !isPausedForHost(partition)) {
+                    container.resumePartition(partition);
+                    log.info("Resumed partition {} after SFTP host {} recovered", partition, host);
+                }
+            }
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+    
+    private boolean isPausedForHost(TopicPartition partition) {
+        return pausedByHost.values().stream().anyMatch(partitions -> partitions.contains(partition));
+    }
+    
+    /**
+     * Partitions assigned to the main containers of the running topics that are consuming, i.e. paused
+     * neither for an SFTP host nor for backpressure. Retry tiers are not included; they hold records back
+     * with nacks of their own.
+     */
+    public List<TopicPartition> getConsumingPartitions() {
+        List<TopicPartition> consuming = new ArrayList<>();
+        for (String topicName : activeTopics.keySet()) {
+            MessageListenerContainer container = activeContainers.get(topicName);
+            Collection<TopicPartition> assigned = container != null ? container.getAssignedPartitions() : null;
+            if (assigned == null) {
+                continue;
+            }
+            for (TopicPartition partition : assigned) {
+                if (!pausedForBackpressure.contains(partition) && !isPausedForHost(partition)) {
+                    consuming.add(partition);
+                }
+            }
+        }
+        return consuming;
+    }
+    
+    /**
+     * Stops fetching from {@code partition} until {@link #resumeFromBackpressure}; its consumer keeps polling,
+     * so the group does not rebalance.
+     */
+    public void pauseForBackpressure(TopicPartition partition) {
+        MessageListenerContainer container = activeContainers.get(partition.topic());
+        if (container == null) {
+            return;
+        }
+        pauseLock.lock();
+        try {
+            if (pausedForBackpressure.add(partition)) {
+                container.pausePartition(partition);
+            }
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+    
+    public boolean isPausedForBackpressure(TopicPartition partition) {
+        return pausedForBackpressure.contains(partition);
+    }
+    
+    /**
+     * @return whether the partition was still paused for backpressure; a restarted topic forgets its pauses
+     */
+    public boolean resumeFromBackpressure(TopicPartition partition) {
+        pauseLock.lock();
+        try {
+            if (!pausedForBackpressure.remove(partition)) {
+                return false;
+            }
+            MessageListenerContainer container = activeContainers.get(partition.topic());
+            // A partition also waiting for its SFTP host resumes when the host recovers
+            if (container != null && !isPausedForHost(partition)) {
+                container.resumePartition(partition);
+            }
+            return true;
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+    
+    /**
+     * Paused partitions keyed by the SFTP host they wait for.
+     */
+    public Map<String, List<String>> getPausedPartitions() {
+        Map<String, List<String>> paused = new HashMap<>();
+        pausedByHost.forEach((host, partitions) ->
+            paused.put(host, partitions.stream().map(TopicPartition::toString).sorted().toList()));
+        return paused;
+    }
+    
+    /**
+     * Worker-side handler for PIPELINE mode. The rows go through the write-behind buffer and the worker
+     * moves on to the next record of its lane once they are buffered; acknowledgment is left to the
+     * pipeline's offset tracking, which sees the record as done when the returned future completes.
+     *
+     * @return completes once the rows have been committed or the record routed for retry, and fails if
+     *         the record could be neither processed nor routed
+     */
+    private CompletableFuture<Void> processPipelined(ConsumerRecord<String, String> record) {
+        String topicName = RetryRouter.originalTopic(record);
+        String message = record.value();
+        if (message == null || message.isEmpty()) {
+            log.warn("Received empty message from topic: {}, skipping", topicName);
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        CompletableFuture<Void> written;
+        try {
+            log.debug("Processing message from topic: {}", topicName);
+            written = messageProcessorService.processMessageWriteBehind(message, topicName);
+        } catch (Exception ex) {
+            routePipelined(record, ex);
+            return CompletableFuture.completedFuture(null);
+        }
+        // A failed flush completes on the buffer's flusher thread; routing it may block on the retry topic
+        return written.exceptionallyAsync(ex -> {
+            routePipelined(record, ex instanceof Exception e ? e : new CompletionException(ex));
+            return null;
+        }, task -> Thread.ofVirtual().name("pipeline-failure-" + record.topic()).start(task));
+    }
+    
+    private void routePipelined(ConsumerRecord<String, String> record, Exception ex) {
+        if (handleFailure(record, ex, false) == Outcome.FAILED) {
+            throw new MessageProcessingException("Failed to process or route record from topic: " + record.topic());
+        }
+    }
+    
+    private void processBatch(List<ConsumerRecord<String, String>> records, String topicName, Acknowledgment acknowledgment) {
+        List<ConsumerRecord<String, String>> nonEmpty = new ArrayList<>(records.size());
+        List<String> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() != null && !record.value().isEmpty()) {
+                nonEmpty.add(record);
+                messages.add(record.value());
+            }
+        }
+        
+        if (messages.size() < records.size()) {
+            log.warn("Skipping {} empty messages in batch from topic: {}", records.size() - messages.size(), topicName);
+        }
+        
+        List<MessageProcessorService.UnparseableMessage> unparseable = List.of();
+        try {
+            if (!messages.isEmpty()) {
+                log.debug("Processing batch of {} messages from topic: {}", messages.size(), topicName);
+                unparseable = messageProcessorService.processBatch(messages, topicName);
+            }
+        } catch (Exception ex) {
+            // Find the failing records one by one so only they go to the retry tiers
+            log.error("Error processing batch of {} records from topic: {}, retrying records individually",
+                records.size(), topicName, ex);
+            for (int i = 0; i < records.size(); i++) {
+                if (handle(records.get(i), false) == Outcome.FAILED) {
+                    // Commits the records before it and seeks back to it; the rest of the poll follows it
+                    if (acknowledgment != null) acknowledgment.nack(i, failedRedeliveryDelay());
+                    return;
+                }
+            }
+            if (acknowledgment != null) acknowledgment.acknowledge();
+            return;
+        }
+        
+        // Poison messages are dead-lettered, as they are in the other modes
+        for (MessageProcessorService.UnparseableMessage message : unparseable) {
+            ConsumerRecord<String, String> record = nonEmpty.get(message.index());
             try {
-                container.stop();
-            } catch (Exception e) {
-                log.error("Error stopping consumer container", e);
+                retryRouter.handleFailure(record, message.cause());
+            } catch (Exception routeEx) {
+                log.error("Could not route unparseable message {}-{}@{} to the DLQ, seeking back to it",
+                    record.topic(), record.partition(), record.offset(), routeEx);
+                if (acknowledgment != null) acknowledgment.nack(records.indexOf(record), failedRedeliveryDelay());
+                return;
             }
+        }
+        // One acknowledgment commits the offsets of the whole poll
+        if (acknowledgment != null) acknowledgment.acknowledge();
+        log.debug("Successfully processed and acknowledged batch of {} records from topic: {}", records.size(), topicName);
+    }
+    
+    /**
+     * In-flight, completed and failed record counts of each PIPELINE mode topic.
+     */
+    public Map<String, Map<String, Object>> getPipelineStats() {
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        pipelines.forEach((topicName, pipeline) -> {
+            Map<String, Object> topicStats = new HashMap<>();
+            topicStats.put("inFlight", pipeline.getInFlight());
+            topicStats.put("completed", pipeline.getCompleted());
+            topicStats.put("failed", pipeline.getFailed());
+            stats.put(topicName, topicStats);
         });
+        return stats;
+    }
+    
+    @PreDestroy
+    public void stopAllConsumers() {
+        log.info("Stopping all dynamic consumers...");
+        stopContainers(List.copyOf(activeContainers.values()));
         activeContainers.clear();
+        activeTopics.clear();
+        pipelines.values().forEach(pipeline -> pipeline.close(pipelineShutdownTimeoutMs));
+        pipelines.clear();
         log.info("All consumers stopped");
     }
 }
\ No newline at end of file
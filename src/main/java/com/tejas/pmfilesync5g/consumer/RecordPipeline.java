@@ -0,0 +1,380 @@
+package com.tejas.pmfilesync5g.consumer;
+
+import com.tejas.pmfilesync5g.config.TopicConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Worker stage of a topic in PIPELINE mode. The container thread only submits records; they are
+ * processed on virtual threads, in order per lane (partition or key). Once {@code maxInFlight} records
+ * are outstanding the container is paused, so at most the rest of the current poll is taken on beyond
+ * the window, and it is resumed when half the window has drained; the container thread never blocks.
+ * <p>
+ * The handler returns a future that completes when the record is done, e.g. once its rows were flushed
+ * by the write-behind buffer. A lane moves on to its next record as soon as the handler returns, so a
+ * single partition can contribute many records to one flush; a record counts against the window until
+ * its future completes.
+ * <p>
+ * Offsets are acknowledged per partition up to the highest contiguous completed offset, so a
+ * restart never skips a record that is still being processed. A record whose future fails, i.e. that
+ * could be neither processed nor routed for retry, is not completed: the watermark stops below it, its
+ * partition is sought back to it and later records of the partition are dropped until it is redelivered,
+ * including those still queued in its lane. Records of the lane that ran while the failed one awaited its
+ * flush are processed again after the seek.
+ * When a partition is revoked its pending offsets are dropped; the new owner redelivers them and the
+ * idempotent upsert absorbs the duplicates, as it does for records redelivered by a seek.
+ * <p>
+ * Everything the workers lock, here and in the services they call, is a {@link ReentrantLock}: on JDK 21 a
+ * virtual thread that blocks while holding a monitor, or waits to enter one, pins its carrier thread.
+ */
+@Slf4j
+class RecordPipeline implements ConsumerRebalanceListener {
+
+    private final String topicName;
+    private final Function<ConsumerRecord<String, String>, CompletableFuture<Void>> handler;
+    private final TopicConfiguration.PipelineOrdering ordering;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Lane, CompletableFuture<Void>> lanes = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, OffsetTracker> trackers = new ConcurrentHashMap<>();
+    private final Listener listener = new Listener();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final ReentrantLock intakeLock = new ReentrantLock();
+    private final Condition drained = intakeLock.newCondition();
+    private MessageListenerContainer container;
+    private boolean intakePaused;
+
+    RecordPipeline(String topicName, TopicConfiguration.PipelineConfig config,
+                   Function<ConsumerRecord<String, String>, CompletableFuture<Void>> handler) {
+        this.topicName = topicName;
+        this.handler = handler;
+        this.ordering = config.getOrdering();
+        this.maxInFlight = config.getMaxInFlight();
+    }
+
+    /**
+     * Listener to install on the topic's container; it submits each record and tracks the seek callbacks
+     * failed records are rewound with.
+     */
+    AcknowledgingMessageListener<String, String> listener() {
+        return listener;
+    }
+
+    /**
+     * The container paused while the window is full.
+     */
+    void attach(MessageListenerContainer container) {
+        this.container = container;
+    }
+
+    void submit(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        OffsetTracker tracker = trackers.computeIfAbsent(partition, p -> new OffsetTracker());
+        OffsetTracker.Submission submission = tracker.begin(record.offset(), acknowledgment);
+        if (submission == null) {
+            log.debug("Dropped {}@{} while its partition is rewound to an earlier failed record", partition, record.offset());
+            return;
+        }
+        inFlight.incrementAndGet();
+        throttle();
+        Runnable task = () -> run(record, partition, tracker, submission);
+
+        Lane lane = laneOf(record);
+        if (lane == null) {
+            workers.execute(task);
+            return;
+        }
+        CompletableFuture<Void> tail = lanes.compute(lane, (k, previous) -> previous == null
+            ? CompletableFuture.runAsync(task, workers)
+            : previous.thenRunAsync(task, workers));
+        tail.whenComplete((v, t) -> lanes.remove(lane, tail));
+    }
+
+    private Lane laneOf(ConsumerRecord<String, String> record) {
+        if (ordering == TopicConfiguration.PipelineOrdering.PARTITION) {
+            return new Lane(record.partition(), null);
+        }
+        return record.key() != null ? new Lane(record.partition(), record.key()) : null;
+    }
+
+    private void run(ConsumerRecord<String, String> record, TopicPartition partition, OffsetTracker tracker,
+                     OffsetTracker.Submission submission) {
+        if (!tracker.isLive(record.offset(), submission)) {
+            log.debug("Skipped {}@{}, dropped by a rewind or revocation while it was queued", partition, record.offset());
+            release();
+            return;
+        }
+        CompletableFuture<Void> done;
+        try {
+            done = handler.apply(record);
+        } catch (Exception e) {
+            done = CompletableFuture.failedFuture(e);
+        }
+        done.whenComplete((v, failure) -> finish(record, partition, tracker, submission, failure));
+    }
+
+    private void finish(ConsumerRecord<String, String> record, TopicPartition partition, OffsetTracker tracker,
+                        OffsetTracker.Submission submission, Throwable failure) {
+        try {
+            if (failure == null) {
+                completed.incrementAndGet();
+                tracker.complete(record.offset(), submission);
+            } else {
+                failed.incrementAndGet();
+                log.error("Error processing record {}@{} in pipeline, seeking back to it", partition, record.offset(), failure);
+                rewind(partition, tracker, record.offset(), submission);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        throttle();
+    }
+
+    private void rewind(TopicPartition partition, OffsetTracker tracker, long offset, OffsetTracker.Submission submission) {
+        if (!tracker.fail(offset, submission)) {
+            return;
+        }
+        // Without a callback the partition was revoked and its new owner redelivers the record
+        ConsumerSeekAware.ConsumerSeekCallback callback = listener.seekCallbackFor(partition);
+        if (callback != null) {
+            callback.seek(partition.topic(), partition.partition(), offset);
+        }
+    }
+
+    /**
+     * Pauses the container when the window fills up and resumes it once half of it has drained.
+     */
+    private void throttle() {
+        intakeLock.lock();
+        try {
+            int outstanding = inFlight.get();
+            if (!intakePaused && outstanding >= maxInFlight && container != null) {
+                intakePaused = true;
+                container.pause();
+                log.debug("Pipeline window of topic: {} is full, pausing its consumers", topicName);
+            } else if (intakePaused && outstanding <= maxInFlight / 2) {
+                intakePaused = false;
+                container.resume();
+                log.debug("Pipeline window of topic: {} drained to {}, resuming its consumers", topicName, outstanding);
+            }
+            if (outstanding == 0) {
+                drained.signalAll();
+            }
+        } finally {
+            intakeLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            OffsetTracker tracker = trackers.remove(partition);
+            if (tracker != null) {
+                int dropped = tracker.revoke();
+                if (dropped > 0) {
+                    log.info("Partition {} revoked with {} records in flight; their offsets stay uncommitted", partition, dropped);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        // Trackers are created lazily on the first record of a partition
+    }
+
+    /**
+     * Waits for in-flight records to finish, then stops the workers. Lanes hand their next record
+     * to the executor only when the previous one completes, so the executor is shut down last.
+     */
+    void close(long timeoutMs) {
+        intakeLock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (inFlight.get() > 0 && remainingNanos > 0) {
+                remainingNanos = drained.awaitNanos(remainingNanos);
+            }
+            if (inFlight.get() > 0) {
+                log.warn("Pipeline for topic: {} still had {} records in flight at shutdown", topicName, getInFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            intakeLock.unlock();
+            workers.shutdownNow();
+        }
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getCompleted() {
+        return completed.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    private record Lane(int partition, String key) {
+    }
+
+    /**
+     * Keeps the seek callback each consumer thread registered for its partitions. Those queue the seek
+     * for the consumer thread, so workers can use them; the callback passed on assignment cannot.
+     */
+    private final class Listener extends AbstractConsumerSeekAware implements AcknowledgingMessageListener<String, String> {
+
+        @Override
+        public void onMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+            submit(record, acknowledgment);
+        }
+
+        ConsumerSeekCallback seekCallbackFor(TopicPartition partition) {
+            List<ConsumerSeekCallback> callbacks = getSeekCallbacksFor(partition);
+            return callbacks == null || callbacks.isEmpty() ? null : callbacks.get(0);
+        }
+    }
+
+    /**
+     * Submitted offsets of one partition with their acknowledgments. Completing the lowest pending
+     * offset acknowledges the highest offset below the next gap. A failed offset stays pending, and
+     * offsets above it are forgotten until the seek back to it lands. Each delivery of an offset is its
+     * own {@link Submission}, so a task queued before a rewind cannot complete its redelivery.
+     */
+    static final class OffsetTracker {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NavigableMap<Long, Submission> pending = new TreeMap<>();
+        private long rewindTo = -1;
+        private boolean revoked;
+
+        /**
+         * @return the submission to process the record under, or null if the record is a leftover of
+         *         the fetch before a rewind and must be dropped
+         */
+        Submission begin(long offset, Acknowledgment acknowledgment) {
+            lock.lock();
+            try {
+                if (rewindTo >= 0) {
+                    if (offset > rewindTo) {
+                        return null;
+                    }
+                    rewindTo = -1;
+                }
+                Submission submission = new Submission(acknowledgment);
+                if (!revoked) {
+                    pending.put(offset, submission);
+                }
+                return submission;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return false once a rewind or the partition's revocation dropped the submission
+         */
+        boolean isLive(long offset, Submission submission) {
+            lock.lock();
+            try {
+                return pending.get(offset) == submission;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(long offset, Submission submission) {
+            lock.lock();
+            try {
+                // Offsets dropped by a rewind are processed again after the seek
+                if (pending.get(offset) != submission) {
+                    return;
+                }
+                submission.done = true;
+
+                Acknowledgment highest = null;
+                while (!pending.isEmpty() && pending.firstEntry().getValue().done) {
+                    highest = pending.pollFirstEntry().getValue().acknowledgment;
+                }
+                if (highest != null) {
+                    highest.acknowledge();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return whether the partition must be sought back to {@code offset}; not when the submission
+         *         was already dropped by a rewind to an earlier offset or by the revocation
+         */
+        boolean fail(long offset, Submission submission) {
+            lock.lock();
+            try {
+                if (pending.get(offset) != submission) {
+                    return false;
+                }
+                rewindTo = offset;
+                pending.tailMap(offset, true).clear();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int revoke() {
+            lock.lock();
+            try {
+                revoked = true;
+                int inFlight = (int) pending.values().stream().filter(submission -> !submission.done).count();
+                pending.clear();
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        static final class Submission {
+
+            private final Acknowledgment acknowledgment;
+            private boolean done;
+
+            private Submission(Acknowledgment acknowledgment) {
+                this.acknowledgment = acknowledgment;
+            }
+        }
+    }
+}
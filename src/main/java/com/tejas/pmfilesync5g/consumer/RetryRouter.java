@@ -0,0 +1,414 @@
+package com.tejas.pmfilesync5g.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.tejas.pmfilesync5g.config.KafkaProducerConfig;
+import com.tejas.pmfilesync5g.config.TopicConfiguration;
+import com.tejas.pmfilesync5g.exception.SftpHostUnavailableException;
+import com.tejas.pmfilesync5g.service.MessageProcessorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Routes records that failed processing according to {@code error-handling}: to the next retry
+ * tier while attempts remain, otherwise to the dead-letter topic. The failing record is then
+ * acknowledged, so one bad archive no longer holds back the rest of its partition.
+ * <p>
+ * Retry tier {@code n} waits {@code backoff-delay * backoff-multiplier^(n-1)} ms before attempt
+ * {@code n+1}. In TOPIC mode tiers are Kafka topics and their consumers nack records until due;
+ * in LOCAL mode they are an in-process delay queue. Records that cannot be parsed skip the retry tiers;
+ * records whose SFTP host is behind an open circuit breaker wait for it without using up an attempt.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryRouter {
+
+    public static final String HEADER_ORIGINAL_TOPIC = "pm-original-topic";
+    public static final String HEADER_ORIGINAL_PARTITION = "pm-original-partition";
+    public static final String HEADER_ORIGINAL_OFFSET = "pm-original-offset";
+    public static final String HEADER_ATTEMPT = "pm-attempt";
+    public static final String HEADER_DUE_AT = "pm-retry-due-at";
+    public static final String HEADER_EXCEPTION = "pm-exception-fqcn";
+    public static final String HEADER_EXCEPTION_MESSAGE = "pm-exception-message";
+    public static final String HEADER_FAILED_AT = "pm-failed-at";
+
+    private final TopicConfiguration topicConfiguration;
+    private final KafkaProducerConfig kafkaProducerConfig;
+    private final MessageProcessorService messageProcessorService;
+
+    @Value("${KAFKA_BOOTSTRAP_SERVERS:localhost:9092}")
+    private String defaultBootstrapServers;
+
+    @Value("${app.kafka.error-handling.publish-timeout-ms:10000}")
+    private long publishTimeoutMs;
+
+    private final Map<String, KafkaTemplate<String, String>> templates = new ConcurrentHashMap<>();
+    private final DelayQueue<DelayedRetry> localQueue = new DelayQueue<>();
+    private volatile Thread localWorker;
+    private final ReentrantLock localWorkerLock = new ReentrantLock();
+
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+
+    /**
+     * Sends a failed record to its next retry tier or to the dead-letter topic.
+     *
+     * @throws Exception if the record could not be handed off; it must then be redelivered rather than acknowledged
+     */
+    public void handleFailure(ConsumerRecord<String, String> record, Exception cause) throws Exception {
+        route(Failure.of(record), cause);
+    }
+
+    /**
+     * @return the delay topics of a topic in TOPIC mode, in tier order; empty when retries are disabled
+     */
+    public List<String> retryTopics(String topicName) {
+        TopicConfiguration.RetryConfig retry = retryConfig();
+        List<String> tiers = new ArrayList<>();
+        if (retry.getMode() == TopicConfiguration.RetryMode.TOPIC) {
+            for (int tier = 1; tier < retry.getMaxAttempts(); tier++) {
+                tiers.add(retryTopic(topicName, tier));
+            }
+        }
+        return tiers;
+    }
+
+    /**
+     * @return milliseconds until a retry tier record is due, or 0 if it can be processed now
+     */
+    public long remainingDelayMs(ConsumerRecord<String, String> record) {
+        String dueAt = header(record.headers(), HEADER_DUE_AT);
+        return dueAt == null ? 0 : Math.max(0, Long.parseLong(dueAt) - System.currentTimeMillis());
+    }
+
+    /**
+     * @return the topic the record was first consumed from
+     */
+    public static String originalTopic(ConsumerRecord<String, String> record) {
+        String topic = header(record.headers(), HEADER_ORIGINAL_TOPIC);
+        return topic != null ? topic : record.topic();
+    }
+
+    /**
+     * Creates the retry tier and dead-letter topics of a topic when topic management allows it.
+     */
+    public void ensureTopics(TopicConfiguration.TopicConfig topic) {
+        TopicConfiguration.TopicManagement management = topicConfiguration.getTopicManagement();
+        if (management == null || !management.isAutoCreateTopics()) {
+            return;
+        }
+
+        List<NewTopic> newTopics = new ArrayList<>();
+        Optional<Integer> partitions = topic.getPartitions() > 0 ? Optional.of(topic.getPartitions()) : Optional.empty();
+        for (String name : retryTopics(topic.getName())) {
+            newTopics.add(new NewTopic(name, partitions, Optional.empty()));
+        }
+        if (deadLetterConfig().isEnabled()) {
+            newTopics.add(new NewTopic(topic.getName() + deadLetterConfig().getSuffix(), partitions, Optional.empty()));
+        }
+        if (newTopics.isEmpty()) {
+            return;
+        }
+
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, topic.getBroker()))) {
+            for (var entry : admin.createTopics(newTopics).values().entrySet()) {
+                try {
+                    entry.getValue().get(management.getTopicCreationTimeout(), TimeUnit.MILLISECONDS);
+                    log.info("Created topic: {}", entry.getKey());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof TopicExistsException)) {
+                        log.warn("Could not create topic: {}", entry.getKey(), e.getCause());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not create retry and dead-letter topics for: {}", topic.getName(), e);
+        }
+    }
+
+    private void route(Failure failure, Exception cause) throws Exception {
+        TopicConfiguration.RetryConfig retry = retryConfig();
+        SftpHostUnavailableException unavailable = SftpHostUnavailableException.find(cause);
+        if (unavailable != null && (retry.getMode() == TopicConfiguration.RetryMode.LOCAL || retry.getMaxAttempts() > 1)) {
+            park(failure, unavailable, retry);
+            return;
+        }
+        
+        if (!isRetryable(cause) || failure.attempt() >= retry.getMaxAttempts()) {
+            deadLetter(failure, cause);
+            return;
+        }
+
+        long delayMs = (long) (retry.getBackoffDelay() * Math.pow(retry.getBackoffMultiplier(), failure.attempt() - 1));
+        long dueAt = System.currentTimeMillis() + delayMs;
+
+        if (retry.getMode() == TopicConfiguration.RetryMode.LOCAL) {
+            startLocalWorker();
+            localQueue.add(new DelayedRetry(failure.next(), dueAt));
+        } else {
+            String tierTopic = retryTopic(failure.topic(), failure.attempt());
+            ProducerRecord<String, String> producerRecord = failure.toProducerRecord(tierTopic);
+            addHeader(producerRecord.headers(), HEADER_ATTEMPT, String.valueOf(failure.attempt() + 1));
+            addHeader(producerRecord.headers(), HEADER_DUE_AT, String.valueOf(dueAt));
+            addFailureHeaders(producerRecord.headers(), cause);
+            send(failure.topic(), producerRecord);
+        }
+
+        retried.incrementAndGet();
+        log.warn("Attempt {} failed for {}-{}@{}, retrying in {} ms: {}", failure.attempt(), failure.topic(),
+            failure.partition(), failure.offset(), delayMs, rootMessage(cause));
+    }
+
+    /**
+     * Holds a record whose SFTP host is behind an open circuit breaker until the breaker's next probe,
+     * without using up an attempt.
+     */
+    private void park(Failure failure, SftpHostUnavailableException unavailable, TopicConfiguration.RetryConfig retry)
+            throws Exception {
+        long dueAt = Math.max(unavailable.getRetryAt(), System.currentTimeMillis());
+        if (retry.getMode() == TopicConfiguration.RetryMode.LOCAL) {
+            startLocalWorker();
+            localQueue.add(new DelayedRetry(failure, dueAt));
+        } else {
+            String tierTopic = retryTopic(failure.topic(), Math.min(failure.attempt(), retry.getMaxAttempts() - 1));
+            ProducerRecord<String, String> producerRecord = failure.toProducerRecord(tierTopic);
+            addHeader(producerRecord.headers(), HEADER_ATTEMPT, String.valueOf(failure.attempt()));
+            addHeader(producerRecord.headers(), HEADER_DUE_AT, String.valueOf(dueAt));
+            addFailureHeaders(producerRecord.headers(), unavailable);
+            send(failure.topic(), producerRecord);
+        }
+        
+        parked.incrementAndGet();
+        log.info("Parked {}-{}@{} until SFTP host {} is probed again", failure.topic(), failure.partition(),
+            failure.offset(), unavailable.getHost());
+    }
+
+    private void deadLetter(Failure failure, Exception cause) throws Exception {
+        TopicConfiguration.DeadLetterTopic dlq = deadLetterConfig();
+        if (!dlq.isEnabled()) {
+            dropped.incrementAndGet();
+            log.error("Giving up on {}-{}@{} after {} attempts, dead-letter topic disabled", failure.topic(),
+                failure.partition(), failure.offset(), failure.attempt(), cause);
+            return;
+        }
+
+        ProducerRecord<String, String> producerRecord = failure.toProducerRecord(failure.topic() + dlq.getSuffix());
+        addHeader(producerRecord.headers(), HEADER_ATTEMPT, String.valueOf(failure.attempt()));
+        addFailureHeaders(producerRecord.headers(), cause);
+        send(failure.topic(), producerRecord);
+
+        deadLettered.incrementAndGet();
+        log.error("Dead-lettered {}-{}@{} after {} attempts to {}", failure.topic(), failure.partition(),
+            failure.offset(), failure.attempt(), producerRecord.topic(), cause);
+    }
+
+    private void send(String originalTopic, ProducerRecord<String, String> producerRecord) throws Exception {
+        KafkaTemplate<String, String> template = templates.computeIfAbsent(brokerOf(originalTopic),
+            kafkaProducerConfig::createKafkaTemplate);
+        template.send(producerRecord).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private String brokerOf(String topicName) {
+        if (topicConfiguration.getTopics() != null) {
+            for (TopicConfiguration.TopicConfig topic : topicConfiguration.getTopics()) {
+                if (topic.getName().equals(topicName) && topic.getBroker() != null) {
+                    return topic.getBroker();
+                }
+            }
+        }
+        return defaultBootstrapServers;
+    }
+
+    private void startLocalWorker() {
+        localWorkerLock.lock();
+        try {
+            if (localWorker == null) {
+                localWorker = Thread.ofVirtual().name("local-retry").start(this::runLocalRetries);
+            }
+        } finally {
+            localWorkerLock.unlock();
+        }
+    }
+
+    private void runLocalRetries() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Failure failure;
+            try {
+                failure = localQueue.take().failure();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Thread.ofVirtual().start(() -> retryLocally(failure));
+        }
+    }
+
+    private void retryLocally(Failure failure) {
+        try {
+            messageProcessorService.processMessage(failure.value(), failure.topic());
+        } catch (Exception e) {
+            try {
+                route(failure, e);
+            } catch (Exception routeException) {
+                dropped.incrementAndGet();
+                log.error("Dropping {}-{}@{}, could not route failed local retry", failure.topic(),
+                    failure.partition(), failure.offset(), routeException);
+            }
+        }
+    }
+
+    private static boolean isRetryable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof JsonProcessingException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Throwable rootCause(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root;
+    }
+
+    private static String rootMessage(Throwable cause) {
+        Throwable root = rootCause(cause);
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+
+    private TopicConfiguration.RetryConfig retryConfig() {
+        TopicConfiguration.ErrorHandling errorHandling = topicConfiguration.getErrorHandling();
+        return errorHandling != null && errorHandling.getRetry() != null
+            ? errorHandling.getRetry() : new TopicConfiguration.RetryConfig();
+    }
+
+    private TopicConfiguration.DeadLetterTopic deadLetterConfig() {
+        TopicConfiguration.ErrorHandling errorHandling = topicConfiguration.getErrorHandling();
+        return errorHandling != null && errorHandling.getDeadLetterTopic() != null
+            ? errorHandling.getDeadLetterTopic() : new TopicConfiguration.DeadLetterTopic();
+    }
+
+    private String retryTopic(String topicName, int tier) {
+        return topicName + retryConfig().getTopicSuffix() + "-" + tier;
+    }
+
+    private static void addFailureHeaders(Headers headers, Exception cause) {
+        Throwable root = rootCause(cause);
+        addHeader(headers, HEADER_EXCEPTION, root.getClass().getName());
+        addHeader(headers, HEADER_EXCEPTION_MESSAGE, String.valueOf(root.getMessage()));
+        addHeader(headers, HEADER_FAILED_AT, String.valueOf(System.currentTimeMillis()));
+    }
+
+    private static void addHeader(Headers headers, String key, String value) {
+        headers.remove(key);
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (localWorker != null) {
+            localWorker.interrupt();
+            if (!localQueue.isEmpty()) {
+                log.warn("Discarding {} pending local retries at shutdown", localQueue.size());
+            }
+        }
+        templates.values().forEach(template -> template.getProducerFactory().reset());
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getParked() {
+        return parked.get();
+    }
+
+    public int getLocalPending() {
+        return localQueue.size();
+    }
+
+    /**
+     * A failed record with its origin and the attempt that just failed (1 for the first delivery).
+     */
+    private record Failure(String topic, int partition, long offset, String key, String value, int attempt) {
+
+        static Failure of(ConsumerRecord<String, String> record) {
+            Headers headers = record.headers();
+            String partition = header(headers, HEADER_ORIGINAL_PARTITION);
+            String offset = header(headers, HEADER_ORIGINAL_OFFSET);
+            String attempt = header(headers, HEADER_ATTEMPT);
+            return new Failure(originalTopic(record),
+                partition != null ? Integer.parseInt(partition) : record.partition(),
+                offset != null ? Long.parseLong(offset) : record.offset(),
+                record.key(), record.value(),
+                attempt != null ? Integer.parseInt(attempt) : 1);
+        }
+
+        Failure next() {
+            return new Failure(topic, partition, offset, key, value, attempt + 1);
+        }
+
+        ProducerRecord<String, String> toProducerRecord(String targetTopic) {
+            ProducerRecord<String, String> producerRecord = new ProducerRecord<>(targetTopic, key, value);
+            addHeader(producerRecord.headers(), HEADER_ORIGINAL_TOPIC, topic);
+            addHeader(producerRecord.headers(), HEADER_ORIGINAL_PARTITION, String.valueOf(partition));
+            addHeader(producerRecord.headers(), HEADER_ORIGINAL_OFFSET, String.valueOf(offset));
+            return producerRecord;
+        }
+    }
+
+    private record DelayedRetry(Failure failure, long dueAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((DelayedRetry) other).dueAt);
+        }
+    }
+}
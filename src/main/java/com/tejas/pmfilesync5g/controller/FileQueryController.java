@@ -0,0 +1,47 @@
+package com.tejas.pmfilesync5g.controller;
+
+import com.tejas.pmfilesync5g.dto.FileQuery;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.service.FileQueryService;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Read API over the sync tables, served under the {@code /api/v1} context path.
+ */
+@RestController
+@RequestMapping("/files/{nfType}")
+@RequiredArgsConstructor
+public class FileQueryController {
+
+    private final FileQueryService fileQueryService;
+
+    /**
+     * One page of rows in {@code (time, id)} order, streamed as {@code {"items": [...], "nextCursor": "..."}};
+     * pass {@code nextCursor} back as {@code cursor} for the following page.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> files(@PathVariable NfType nfType,
+                                                       @RequestParam(required = false) String serialNumber,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                                       @RequestParam(required = false) String status,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "1000") @Min(1) int limit) {
+        FileQuery query = fileQueryService.buildQuery(nfType, serialNumber, from, to, status, cursor, limit);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> fileQueryService.writePage(query, out));
+    }
+}
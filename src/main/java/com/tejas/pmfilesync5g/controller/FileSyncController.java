@@ -0,0 +1,48 @@
+package com.tejas.pmfilesync5g.controller;
+
+import com.tejas.pmfilesync5g.dto.ClaimedPmFile;
+import com.tejas.pmfilesync5g.dto.CompleteRequest;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.service.FileClaimService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/files/{nfType}")
+@RequiredArgsConstructor
+public class FileSyncController {
+
+    private final FileClaimService fileClaimService;
+
+    @PostMapping("/claim")
+    public ResponseEntity<List<ClaimedPmFile>> claim(@PathVariable NfType nfType,
+                                                     @RequestParam @NotBlank @Size(max = 64) String worker,
+                                                     @RequestParam(defaultValue = "100") @Min(1) int limit,
+                                                     @RequestParam(required = false) @Positive Long leaseMs) {
+        return ResponseEntity.ok(fileClaimService.claim(nfType, worker, limit, leaseMs));
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<Map<String, Integer>> complete(@PathVariable NfType nfType, @Valid @RequestBody CompleteRequest request) {
+        return ResponseEntity.ok(Map.of("completed", fileClaimService.complete(nfType, request.worker(), request.ids())));
+    }
+
+    @PostMapping("/reclaim")
+    public ResponseEntity<Map<String, Integer>> reclaim(@PathVariable NfType nfType) {
+        return ResponseEntity.ok(Map.of("reclaimed", fileClaimService.reclaimExpired(nfType)));
+    }
+}
@@ -1,6 +1,15 @@
 package com.tejas.pmfilesync5g.controller;
 
+import com.tejas.pmfilesync5g.consumer.BackpressureController;
+import com.tejas.pmfilesync5g.consumer.DynamicKafkaConsumer;
+import com.tejas.pmfilesync5g.consumer.RetryRouter;
 import com.tejas.pmfilesync5g.service.MessageProcessorService;
+import com.tejas.pmfilesync5g.service.NotificationDeduplicator;
+import com.tejas.pmfilesync5g.service.SftpCircuitBreaker;
+import com.tejas.pmfilesync5g.service.SftpSessionPool;
+import com.tejas.pmfilesync5g.service.SftpTransferScheduler;
+import com.tejas.pmfilesync5g.service.TarListingCache;
+import com.tejas.pmfilesync5g.service.VesNotificationReader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +25,15 @@ import java.util.Map;
 public class HealthController {
 
     private final MessageProcessorService messageProcessorService;
+    private final SftpSessionPool sftpSessionPool;
+    private final SftpTransferScheduler sftpTransferScheduler;
+    private final TarListingCache tarListingCache;
+    private final VesNotificationReader vesNotificationReader;
+    private final DynamicKafkaConsumer dynamicKafkaConsumer;
+    private final BackpressureController backpressureController;
+    private final RetryRouter retryRouter;
+    private final SftpCircuitBreaker sftpCircuitBreaker;
+    private final NotificationDeduplicator notificationDeduplicator;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
@@ -30,6 +48,7 @@ public class HealthController {
         kafka.put("processingErrors", messageProcessorService.getProcessingErrors());
         
         health.put("kafka", kafka);
+        health.put("sftpHosts", sftpCircuitBreaker.getStates());
         return ResponseEntity.ok(health);
     }
 
@@ -44,6 +63,59 @@ public class HealthController {
         double errorRate = totalMessages > 0 ? (double) errors / totalMessages : 0.0;
         metrics.put("errorRate", errorRate);
         
+        Map<String, Object> sftpPool = new HashMap<>();
+        sftpPool.put("hits", sftpSessionPool.getHits());
+        sftpPool.put("misses", sftpSessionPool.getMisses());
+        sftpPool.put("waitTimeMs", sftpSessionPool.getWaitTimeMs());
+        sftpPool.put("evictions", sftpSessionPool.getEvictions());
+        sftpPool.put("openSessions", sftpSessionPool.getOpenSessions());
+        sftpPool.put("activeLeases", sftpSessionPool.getActiveLeases());
+        metrics.put("sftpPool", sftpPool);
+        
+        Map<String, Object> sftpScheduler = new HashMap<>();
+        sftpScheduler.put("active", sftpTransferScheduler.getActive());
+        sftpScheduler.put("queued", sftpTransferScheduler.getQueued());
+        metrics.put("sftpScheduler", sftpScheduler);
+        
+        Map<String, Object> listingCache = new HashMap<>();
+        listingCache.put("hits", tarListingCache.getHits());
+        listingCache.put("diskHits", tarListingCache.getDiskHits());
+        listingCache.put("misses", tarListingCache.getMisses());
+        listingCache.put("evictions", tarListingCache.getEvictions());
+        listingCache.put("size", tarListingCache.getSize());
+        metrics.put("listingCache", listingCache);
+        
+        Map<String, Object> dedup = new HashMap<>();
+        dedup.put("checked", notificationDeduplicator.getChecked());
+        dedup.put("duplicates", notificationDeduplicator.getDuplicates());
+        dedup.put("filterFalsePositives", notificationDeduplicator.getFilterFalsePositives());
+        dedup.put("evictions", notificationDeduplicator.getEvictions());
+        dedup.put("size", notificationDeduplicator.getSize());
+        metrics.put("dedup", dedup);
+        
+        Map<String, Object> vesReader = new HashMap<>();
+        vesReader.put("streamed", vesNotificationReader.getStreamed());
+        vesReader.put("fallbacks", vesNotificationReader.getFallbacks());
+        metrics.put("vesReader", vesReader);
+        metrics.put("pipelines", dynamicKafkaConsumer.getPipelineStats());
+        
+        Map<String, Object> retry = new HashMap<>();
+        retry.put("retried", retryRouter.getRetried());
+        retry.put("deadLettered", retryRouter.getDeadLettered());
+        retry.put("dropped", retryRouter.getDropped());
+        retry.put("parked", retryRouter.getParked());
+        retry.put("localPending", retryRouter.getLocalPending());
+        metrics.put("retry", retry);
+        
+        Map<String, Object> circuitBreaker = new HashMap<>();
+        circuitBreaker.put("openHosts", sftpCircuitBreaker.getOpenHosts());
+        circuitBreaker.put("trips", sftpCircuitBreaker.getTrips());
+        circuitBreaker.put("rejected", sftpCircuitBreaker.getRejected());
+        circuitBreaker.put("hosts", sftpCircuitBreaker.getStates());
+        circuitBreaker.put("pausedPartitions", dynamicKafkaConsumer.getPausedPartitions());
+        metrics.put("circuitBreaker", circuitBreaker);
+        metrics.put("backpressure", backpressureController.getStats());
+        
         return ResponseEntity.ok(metrics);
     }
 }
\ No newline at end of file
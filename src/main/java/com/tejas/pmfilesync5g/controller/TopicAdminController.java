@@ -0,0 +1,32 @@
+package com.tejas.pmfilesync5g.controller;
+
+import com.tejas.pmfilesync5g.consumer.DynamicKafkaConsumer;
+import com.tejas.pmfilesync5g.dto.TopicReloadResult;
+import com.tejas.pmfilesync5g.service.TopicConfigReloader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/topics")
+@RequiredArgsConstructor
+public class TopicAdminController {
+
+    private final DynamicKafkaConsumer dynamicKafkaConsumer;
+    private final TopicConfigReloader topicConfigReloader;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> topics() {
+        return ResponseEntity.ok(dynamicKafkaConsumer.getActiveTopics());
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<TopicReloadResult> reload() {
+        return ResponseEntity.ok(topicConfigReloader.reload());
+    }
+}
@@ -0,0 +1,11 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.util.UUID;
+
+/**
+ * A single tar location announced by a VES notification, together with the content identity
+ * EMS reported for it and the notification, source, topic and sync run it was received under.
+ */
+public record ArchiveRef(String location, String md5Checksum, String fileSize, String sourceName, String eventId,
+                         String topic, UUID rsyncId) {
+}
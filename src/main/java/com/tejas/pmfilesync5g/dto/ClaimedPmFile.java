@@ -0,0 +1,11 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A sync row claimed by a downstream worker; it stays IN_PROGRESS until completed or until the lease expires.
+ */
+public record ClaimedPmFile(UUID id, UUID rsyncId, OffsetDateTime time, String serialNumber, String filePath,
+                            OffsetDateTime leaseExpiresAt) {
+}
@@ -0,0 +1,14 @@
+package com.tejas.pmfilesync5g.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows a worker has finished with; only rows it still holds a claim on are completed.
+ */
+public record CompleteRequest(@NotBlank @Size(max = 64) String worker, @NotEmpty List<UUID> ids) {
+}
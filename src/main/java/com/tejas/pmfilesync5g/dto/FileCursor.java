@@ -0,0 +1,37 @@
+package com.tejas.pmfilesync5g.dto;
+
+import com.tejas.pmfilesync5g.exception.InvalidFileQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a page in {@code (time, id)} order, passed back by clients as an opaque token.
+ */
+public record FileCursor(OffsetDateTime time, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = time.toInstant().toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidFileQueryException if {@code token} was not produced by {@link #encode()}
+     */
+    public static FileCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new FileCursor(Instant.parse(raw.substring(0, separator)).atOffset(ZoneOffset.UTC),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidFileQueryException("Invalid page cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Filters and page position for one page of the file query API; null filters match everything.
+ *
+ * @param from  inclusive lower bound on {@code time}
+ * @param to    exclusive upper bound on {@code time}
+ * @param after cursor of the previous page's last row, or null for the first page
+ */
+public record FileQuery(NfType nfType, String serialNumber, OffsetDateTime from, OffsetDateTime to, Short status,
+                        FileCursor after, int limit) {
+}
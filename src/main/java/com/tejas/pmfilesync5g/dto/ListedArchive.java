@@ -0,0 +1,9 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.util.List;
+
+/**
+ * A tar archive together with the XML members listed from it.
+ */
+public record ListedArchive(ArchiveRef archive, List<PmFileRecord> members) {
+}
@@ -0,0 +1,27 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.util.Locale;
+
+/**
+ * Network function a PM archive belongs to; decides which sync table its members land in.
+ */
+public enum NfType {
+    DU,
+    CU;
+
+    /**
+     * Classifies a tar location by its O-RAN directory or file name marker.
+     *
+     * @return the NF type, or {@code null} if the location carries no DU/CU marker
+     */
+    public static NfType fromLocation(String location) {
+        String lower = location.toLowerCase(Locale.ROOT);
+        if (lower.contains("/o-du/") || lower.contains("_du_")) {
+            return DU;
+        }
+        if (lower.contains("/o-cu/") || lower.contains("_cu_")) {
+            return CU;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One counter value extracted from a PM XML member, placed by the interval start and serial number
+ * parsed from the member's file name.
+ *
+ * @param value the counter value, or {@code null} if it was not numeric (e.g. {@code NIL})
+ */
+public record PmCounter(OffsetDateTime time, String serialNumber, NfType nfType, String measInfoId,
+                        String measObjLdn, String measType, Double value) {
+}
@@ -0,0 +1,16 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Fields parsed from a 3GPP TS 32.432 PM XML file name such as
+ * {@code A20250827.1800+0530-1815+0530_001-01-64160_NRCELL_DU.xml}.
+ *
+ * @param time         start of the granularity period, at the start offset
+ * @param endTime      end of the granularity period, at the end offset; {@code null} if the end
+ *                     part of the name is not a valid time
+ * @param serialNumber serial number of the reporting node
+ * @param nfType       NF type from the trailing {@code _DU}/{@code _CU} token, or {@code null}
+ */
+public record PmFileMetadata(OffsetDateTime time, OffsetDateTime endTime, String serialNumber, NfType nfType) {
+}
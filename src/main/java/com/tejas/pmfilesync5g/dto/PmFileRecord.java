@@ -0,0 +1,10 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One XML member of a PM archive, ready to be written to its DU/CU sync table.
+ */
+public record PmFileRecord(UUID rsyncId, OffsetDateTime time, String serialNumber, String filePath) {
+}
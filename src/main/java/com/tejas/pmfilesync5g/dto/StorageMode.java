@@ -0,0 +1,15 @@
+package com.tejas.pmfilesync5g.dto;
+
+/**
+ * How ingested archives are stored, selected by {@code app.storage.mode}.
+ */
+public enum StorageMode {
+    /**
+     * One row per XML member in the DU/CU sync tables, each carrying its full file path.
+     */
+    FLAT,
+    /**
+     * One {@code pm_archive} row per tar plus compact {@code pm_archive_member} rows referencing it.
+     */
+    NORMALIZED
+}
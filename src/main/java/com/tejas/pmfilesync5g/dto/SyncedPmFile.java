@@ -0,0 +1,11 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A DU/CU sync row as returned by the file query API.
+ */
+public record SyncedPmFile(UUID id, UUID rsyncId, OffsetDateTime time, String serialNumber, String filePath,
+                           short status, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+}
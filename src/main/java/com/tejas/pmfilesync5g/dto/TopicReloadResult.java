@@ -0,0 +1,11 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of applying a reloaded topic configuration: which topics' consumers were started, stopped,
+ * restarted with new settings, resized to a new thread count, or left running untouched.
+ */
+public record TopicReloadResult(List<String> started, List<String> stopped, List<String> restarted,
+                                List<String> resized, List<String> unchanged) {
+}
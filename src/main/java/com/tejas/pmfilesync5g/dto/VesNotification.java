@@ -0,0 +1,13 @@
+package com.tejas.pmfilesync5g.dto;
+
+import java.util.List;
+
+/**
+ * The parts of a VES fileReady notification the ingestion needs: event identity, the
+ * reporting source and the announced tar files with a non-empty location.
+ */
+public record VesNotification(String eventId, String sourceName, List<File> files) {
+
+    public record File(String location, String md5Checksum, String fileSize) {
+    }
+}
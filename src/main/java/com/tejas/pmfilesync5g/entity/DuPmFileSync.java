@@ -9,7 +9,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "du_pm_file_sync")
+@Table(name = "du_pm_file_sync", uniqueConstraints = @UniqueConstraint(columnNames = {"file_path", "time"}))
 @Data
 public class DuPmFileSync {
 
@@ -26,12 +26,18 @@ public class DuPmFileSync {
     @Column(name = "serial_number", nullable = false, length = 15)
     private String serialNumber;
 
-    @Column(name = "file_path", nullable = false, unique = true)
+    @Column(name = "file_path", nullable = false)
     private String filePath;
 
     @Column(name = "status")
     private Short status;
 
+    @Column(name = "lease_expires_at")
+    private OffsetDateTime leaseExpiresAt;
+
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
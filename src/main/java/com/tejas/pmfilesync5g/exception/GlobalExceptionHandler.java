@@ -3,11 +3,17 @@ package com.tejas.pmfilesync5g.exception;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestControllerAdvice
@@ -25,6 +31,33 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
 
+    @ExceptionHandler(TopicConfigReloadException.class)
+    public ResponseEntity<Map<String, Object>> handleTopicConfigReloadException(TopicConfigReloadException e) {
+        log.error("Topic configuration reload error: {}", e.getMessage(), e);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Topic Configuration Reload Error");
+        response.put("message", e.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, MissingServletRequestParameterException.class,
+        MethodArgumentNotValidException.class, HandlerMethodValidationException.class, HttpMessageNotReadableException.class,
+        InvalidFileQueryException.class})
+    public ResponseEntity<Map<String, Object>> handleInvalidRequest(Exception e) {
+        String message = describeInvalidRequest(e);
+        log.warn("Invalid request: {}", message);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Invalid Request");
+        response.put("message", message);
+        response.put("timestamp", System.currentTimeMillis());
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception e) {
         log.error("Unexpected error: {}", e.getMessage(), e);
@@ -36,4 +69,19 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
-}
\ No newline at end of file
+
+    private static String describeInvalidRequest(Exception e) {
+        if (e instanceof MethodArgumentNotValidException invalid) {
+            return invalid.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        }
+        if (e instanceof HandlerMethodValidationException invalid) {
+            return invalid.getParameterValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream()
+                    .map(error -> result.getMethodParameter().getParameterName() + " " + error.getDefaultMessage()))
+                .collect(Collectors.joining("; "));
+        }
+        return e.getMessage();
+    }
+}
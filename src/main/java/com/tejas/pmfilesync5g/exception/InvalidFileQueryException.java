@@ -0,0 +1,15 @@
+package com.tejas.pmfilesync5g.exception;
+
+/**
+ * A file query carried a filter or page cursor that could not be interpreted.
+ */
+public class InvalidFileQueryException extends RuntimeException {
+
+    public InvalidFileQueryException(String message) {
+        super(message);
+    }
+
+    public InvalidFileQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tejas.pmfilesync5g.exception;
+
+/**
+ * Thrown without contacting an SFTP host while its circuit breaker is open.
+ */
+public class SftpHostUnavailableException extends RuntimeException {
+    
+    private final String host;
+    private final long retryAt;
+    
+    public SftpHostUnavailableException(String host, long retryAt) {
+        super("SFTP host " + host + " is unavailable, circuit breaker open");
+        this.host = host;
+        this.retryAt = retryAt;
+    }
+    
+    public String getHost() {
+        return host;
+    }
+    
+    /**
+     * @return epoch millis at which the breaker next probes the host
+     */
+    public long getRetryAt() {
+        return retryAt;
+    }
+    
+    /**
+     * @return the first {@code SftpHostUnavailableException} in the cause chain, or {@code null}
+     */
+    public static SftpHostUnavailableException find(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof SftpHostUnavailableException unavailable) {
+                return unavailable;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tejas.pmfilesync5g.exception;
+
+/**
+ * The topic configuration file could not be read or failed validation; the running consumers are
+ * left as they were.
+ */
+public class TopicConfigReloadException extends RuntimeException {
+
+    public TopicConfigReloadException(String message) {
+        super(message);
+    }
+
+    public TopicConfigReloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
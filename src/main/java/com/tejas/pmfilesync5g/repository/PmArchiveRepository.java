@@ -0,0 +1,219 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.ListedArchive;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for the normalized {@code pm_archive}/{@code pm_archive_member} storage.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmArchiveRepository {
+
+    // Longest member prefix stored on an archive, the width of pm_archive.member_prefix
+    static final int MAX_PREFIX_LENGTH = 255;
+
+    private static final String UPSERT_ARCHIVES_SQL = """
+        INSERT INTO pm_archive (rsync_id, file_size, latest_time, created_at, updated_at, nf_type, md5_checksum, member_prefix, location)
+        SELECT u.rsync_id, u.file_size, u.latest_time, now(), now(), ?, u.md5_checksum, u.member_prefix, u.location
+        FROM unnest(?::uuid[], ?::bigint[], ?::timestamptz[], ?::varchar[], ?::varchar[], ?::varchar[])
+            AS u(rsync_id, file_size, latest_time, md5_checksum, member_prefix, location)
+        ON CONFLICT (location) DO UPDATE SET
+            rsync_id = EXCLUDED.rsync_id,
+            file_size = EXCLUDED.file_size,
+            latest_time = EXCLUDED.latest_time,
+            created_at = EXCLUDED.created_at,
+            updated_at = EXCLUDED.updated_at,
+            nf_type = EXCLUDED.nf_type,
+            md5_checksum = EXCLUDED.md5_checksum,
+            member_prefix = EXCLUDED.member_prefix
+        RETURNING id, location
+        """;
+
+    private static final String DELETE_MEMBERS_SQL = "DELETE FROM pm_archive_member WHERE archive_id = ANY(?::bigint[])";
+
+    private static final String INSERT_MEMBERS_SQL = """
+        INSERT INTO pm_archive_member (archive_id, time, status, serial_number, member_suffix)
+        SELECT u.archive_id, u.time, ?, u.serial_number, u.member_suffix
+        FROM unnest(?::bigint[], ?::timestamptz[], ?::varchar[], ?::varchar[])
+            AS u(archive_id, time, serial_number, member_suffix)
+        ON CONFLICT (archive_id, member_suffix) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts or re-ingests the given archives and replaces their members, so re-ingested members start
+     * over as CREATED like rows of the flat tables do. Archives are upserted by location, and members are
+     * inserted in chunks of up to {@value PmFileSyncBulkRepository#UPSERT_CHUNK_SIZE} rows per statement.
+     *
+     * @return number of member rows written
+     */
+    public int upsert(NfType nfType, Collection<ListedArchive> archives) {
+        if (archives.isEmpty()) {
+            return 0;
+        }
+
+        // Last listing of a location wins; sorted so concurrent upserts lock archives in the same order
+        Map<String, ListedArchive> byLocation = new LinkedHashMap<>();
+        for (ListedArchive archive : archives) {
+            byLocation.put(archive.archive().location(), archive);
+        }
+        List<ListedArchive> rows = new ArrayList<>(byLocation.values());
+        rows.sort(Comparator.comparing(listed -> listed.archive().location()));
+
+        Map<String, String> prefixes = new HashMap<>();
+        for (ListedArchive listed : rows) {
+            prefixes.put(listed.archive().location(), memberPrefix(listed.members()));
+        }
+        Map<String, Long> ids = upsertArchives(nfType, rows, prefixes);
+
+        jdbcTemplate.update(DELETE_MEMBERS_SQL, ps ->
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.values().toArray())));
+
+        List<Member> members = new ArrayList<>();
+        for (ListedArchive listed : rows) {
+            long archiveId = ids.get(listed.archive().location());
+            int prefixLength = prefixes.get(listed.archive().location()).length();
+            for (PmFileRecord record : listed.members()) {
+                members.add(new Member(archiveId, record, record.filePath().substring(prefixLength)));
+            }
+        }
+
+        int affected = 0;
+        for (int from = 0; from < members.size(); from += PmFileSyncBulkRepository.UPSERT_CHUNK_SIZE) {
+            List<Member> chunk = members.subList(from, Math.min(from + PmFileSyncBulkRepository.UPSERT_CHUNK_SIZE, members.size()));
+            affected += jdbcTemplate.update(INSERT_MEMBERS_SQL, ps -> {
+                int size = chunk.size();
+                String[] archiveIds = new String[size];
+                String[] times = new String[size];
+                String[] serialNumbers = new String[size];
+                String[] suffixes = new String[size];
+                for (int i = 0; i < size; i++) {
+                    Member member = chunk.get(i);
+                    archiveIds[i] = Long.toString(member.archiveId());
+                    times[i] = member.record().time().toString();
+                    serialNumbers[i] = member.record().serialNumber();
+                    suffixes[i] = member.suffix();
+                }
+
+                Connection connection = ps.getConnection();
+                ps.setShort(1, PmFileSyncBulkRepository.createdStatus(nfType));
+                ps.setArray(2, connection.createArrayOf("text", archiveIds));
+                ps.setArray(3, connection.createArrayOf("text", times));
+                ps.setArray(4, connection.createArrayOf("text", serialNumbers));
+                ps.setArray(5, connection.createArrayOf("text", suffixes));
+            });
+        }
+        return affected;
+    }
+
+    /**
+     * Deletes archives, and with them their members, whose newest member interval started before
+     * {@code cutoff}; archives without members go once they were last ingested before it.
+     *
+     * @return number of archives deleted
+     */
+    public int purgeExpired(OffsetDateTime cutoff) {
+        return jdbcTemplate.update(
+            "DELETE FROM pm_archive WHERE latest_time < ? OR (latest_time IS NULL AND updated_at < ?)", cutoff, cutoff);
+    }
+
+    private Map<String, Long> upsertArchives(NfType nfType, List<ListedArchive> rows, Map<String, String> prefixes) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            int size = rows.size();
+            String[] rsyncIds = new String[size];
+            String[] fileSizes = new String[size];
+            String[] latestTimes = new String[size];
+            String[] checksums = new String[size];
+            String[] memberPrefixes = new String[size];
+            String[] locations = new String[size];
+            for (int i = 0; i < size; i++) {
+                ArchiveRef archive = rows.get(i).archive();
+                OffsetDateTime latest = latestTime(rows.get(i).members());
+                rsyncIds[i] = archive.rsyncId().toString();
+                fileSizes[i] = fileSize(archive.fileSize());
+                latestTimes[i] = latest == null ? null : latest.toString();
+                checksums[i] = archive.md5Checksum();
+                memberPrefixes[i] = prefixes.get(archive.location());
+                locations[i] = archive.location();
+            }
+
+            PreparedStatement ps = connection.prepareStatement(UPSERT_ARCHIVES_SQL);
+            ps.setString(1, nfType.name());
+            ps.setArray(2, connection.createArrayOf("text", rsyncIds));
+            ps.setArray(3, connection.createArrayOf("text", fileSizes));
+            ps.setArray(4, connection.createArrayOf("text", latestTimes));
+            ps.setArray(5, connection.createArrayOf("text", checksums));
+            ps.setArray(6, connection.createArrayOf("text", memberPrefixes));
+            ps.setArray(7, connection.createArrayOf("text", locations));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString("location"), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    /**
+     * Longest prefix shared by all member names, leaving at least one character of each name to the member.
+     */
+    static String memberPrefix(List<PmFileRecord> members) {
+        if (members.isEmpty()) {
+            return "";
+        }
+        String first = members.get(0).filePath();
+        int length = Math.min(first.length() - 1, MAX_PREFIX_LENGTH);
+        for (PmFileRecord member : members) {
+            String path = member.filePath();
+            length = Math.min(length, path.length() - 1);
+            for (int i = 0; i < length; i++) {
+                if (path.charAt(i) != first.charAt(i)) {
+                    length = i;
+                    break;
+                }
+            }
+        }
+        return first.substring(0, Math.max(length, 0));
+    }
+
+    private static OffsetDateTime latestTime(List<PmFileRecord> members) {
+        OffsetDateTime latest = null;
+        for (PmFileRecord member : members) {
+            if (latest == null || member.time().isAfter(latest)) {
+                latest = member.time();
+            }
+        }
+        return latest;
+    }
+
+    private static String fileSize(String fileSize) {
+        if (fileSize == null) {
+            return null;
+        }
+        try {
+            return Long.toString(Long.parseLong(fileSize.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Member(long archiveId, PmFileRecord record, String suffix) {
+    }
+}
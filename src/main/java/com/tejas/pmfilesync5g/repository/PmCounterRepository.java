@@ -0,0 +1,95 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.PmCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for the extracted counter values in {@code pm_counter}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmCounterRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO pm_counter (time, value, created_at, nf_type, serial_number, meas_info_id, meas_obj_ldn, meas_type)
+        SELECT u.time, u.value, now(), u.nf_type, u.serial_number, u.meas_info_id, u.meas_obj_ldn, u.meas_type
+        FROM unnest(?::timestamptz[], ?::float8[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[])
+            AS u(time, value, nf_type, serial_number, meas_info_id, meas_obj_ldn, meas_type)
+        ON CONFLICT (serial_number, nf_type, time, meas_info_id, meas_obj_ldn, meas_type) DO UPDATE SET
+            value = EXCLUDED.value,
+            created_at = EXCLUDED.created_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts or overwrites the given counters in one statement with array parameters; callers bound
+     * the batch size.
+     *
+     * @return number of rows inserted or updated
+     */
+    public int upsert(Collection<PmCounter> counters) {
+        if (counters.isEmpty()) {
+            return 0;
+        }
+
+        // ON CONFLICT cannot touch the same row twice in one statement, so collapse duplicates (last wins)
+        Map<List<Object>, PmCounter> byKey = new LinkedHashMap<>();
+        for (PmCounter counter : counters) {
+            byKey.put(List.of(counter.serialNumber(), counter.nfType(), counter.time().toInstant(), orEmpty(counter.measInfoId()),
+                orEmpty(counter.measObjLdn()), counter.measType()), counter);
+        }
+        List<PmCounter> rows = new ArrayList<>(byKey.values());
+
+        return jdbcTemplate.update(UPSERT_SQL, ps -> {
+            int size = rows.size();
+            String[] times = new String[size];
+            String[] values = new String[size];
+            String[] nfTypes = new String[size];
+            String[] serialNumbers = new String[size];
+            String[] measInfoIds = new String[size];
+            String[] measObjLdns = new String[size];
+            String[] measTypes = new String[size];
+            for (int i = 0; i < size; i++) {
+                PmCounter counter = rows.get(i);
+                times[i] = counter.time().toString();
+                values[i] = counter.value() == null ? null : counter.value().toString();
+                nfTypes[i] = counter.nfType().name();
+                serialNumbers[i] = counter.serialNumber();
+                measInfoIds[i] = orEmpty(counter.measInfoId());
+                measObjLdns[i] = orEmpty(counter.measObjLdn());
+                measTypes[i] = counter.measType();
+            }
+
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("text", times));
+            ps.setArray(2, connection.createArrayOf("text", values));
+            ps.setArray(3, connection.createArrayOf("text", nfTypes));
+            ps.setArray(4, connection.createArrayOf("text", serialNumbers));
+            ps.setArray(5, connection.createArrayOf("text", measInfoIds));
+            ps.setArray(6, connection.createArrayOf("text", measObjLdns));
+            ps.setArray(7, connection.createArrayOf("text", measTypes));
+        });
+    }
+
+    /**
+     * @return number of counter values deleted for intervals that started before {@code cutoff}
+     */
+    public int purgeExpired(OffsetDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM pm_counter WHERE time < ?", cutoff);
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
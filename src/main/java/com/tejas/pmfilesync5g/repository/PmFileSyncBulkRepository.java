@@ -0,0 +1,115 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileRecord;
+import com.tejas.pmfilesync5g.entity.CuPmFileSync;
+import com.tejas.pmfilesync5g.entity.DuPmFileSync;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based writes for the DU/CU sync tables that bypass the JPA persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmFileSyncBulkRepository {
+
+    // Rows per statement; bounds the size of the array parameters sent in one round trip
+    static final int UPSERT_CHUNK_SIZE = 10_000;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO %s (id, rsync_id, time, serial_number, file_path, status, created_at, updated_at)
+        SELECT u.id, u.rsync_id, u.time, u.serial_number, u.file_path, ?, now(), now()
+        FROM unnest(?::uuid[], ?::uuid[], ?::timestamptz[], ?::varchar[], ?::varchar[])
+            AS u(id, rsync_id, time, serial_number, file_path)
+        ON CONFLICT (file_path, time) DO UPDATE SET
+            rsync_id = EXCLUDED.rsync_id,
+            serial_number = EXCLUDED.serial_number,
+            status = EXCLUDED.status,
+            lease_expires_at = NULL,
+            claimed_by = NULL,
+            created_at = EXCLUDED.created_at,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts or re-ingests the given records with {@code INSERT ... ON CONFLICT (file_path, time) DO UPDATE},
+     * sending each chunk of up to {@value #UPSERT_CHUNK_SIZE} rows as one statement with array parameters.
+     * Re-ingested rows are reset to CREATED, lose any claim, and get fresh created_at/updated_at, matching the JPA path.
+     * The key includes {@code time} because the tables are partitioned by it; since the time is parsed
+     * from the file name, it still identifies one row per file path.
+     *
+     * @return number of rows inserted or updated
+     */
+    public int upsert(NfType nfType, Collection<PmFileRecord> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        // ON CONFLICT cannot touch the same row twice in one statement, so collapse duplicates (last wins),
+        // and sort by path so concurrent upserts lock rows in the same order instead of deadlocking
+        Map<String, PmFileRecord> byPath = new LinkedHashMap<>();
+        for (PmFileRecord record : records) {
+            byPath.put(record.filePath(), record);
+        }
+        List<PmFileRecord> rows = new ArrayList<>(byPath.values());
+        rows.sort(Comparator.comparing(PmFileRecord::filePath));
+
+        String sql = UPSERT_SQL.formatted(tableName(nfType));
+        int affected = 0;
+        for (int from = 0; from < rows.size(); from += UPSERT_CHUNK_SIZE) {
+            List<PmFileRecord> chunk = rows.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, rows.size()));
+            affected += jdbcTemplate.update(sql, ps -> {
+                int size = chunk.size();
+                String[] ids = new String[size];
+                String[] rsyncIds = new String[size];
+                String[] times = new String[size];
+                String[] serialNumbers = new String[size];
+                String[] filePaths = new String[size];
+                for (int i = 0; i < size; i++) {
+                    PmFileRecord record = chunk.get(i);
+                    ids[i] = UUID.randomUUID().toString();
+                    rsyncIds[i] = record.rsyncId().toString();
+                    times[i] = record.time().toString();
+                    serialNumbers[i] = record.serialNumber();
+                    filePaths[i] = record.filePath();
+                }
+
+                Connection connection = ps.getConnection();
+                ps.setShort(1, createdStatus(nfType));
+                ps.setArray(2, connection.createArrayOf("text", ids));
+                ps.setArray(3, connection.createArrayOf("text", rsyncIds));
+                ps.setArray(4, connection.createArrayOf("text", times));
+                ps.setArray(5, connection.createArrayOf("text", serialNumbers));
+                ps.setArray(6, connection.createArrayOf("text", filePaths));
+            });
+        }
+        return affected;
+    }
+
+    static short createdStatus(NfType nfType) {
+        return switch (nfType) {
+            case DU -> DuPmFileSync.Status.CREATED.getValue();
+            case CU -> CuPmFileSync.Status.CREATED.getValue();
+        };
+    }
+
+    static String tableName(NfType nfType) {
+        return switch (nfType) {
+            case DU -> "du_pm_file_sync";
+            case CU -> "cu_pm_file_sync";
+        };
+    }
+}
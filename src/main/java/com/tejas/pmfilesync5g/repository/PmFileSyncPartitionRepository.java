@@ -0,0 +1,124 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Partition DDL for the DU/CU sync tables, which are range-partitioned by UTC day of {@code time}.
+ * Daily partitions are named {@code <table>_pYYYYMMDD}; rows outside every range land in {@code <table>_default}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmFileSyncPartitionRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Range bounds are only exposed as text; the timestamptz casts parse them in the session time zone
+    private static final String PARTITIONS_SQL = """
+        SELECT c.relname,
+               pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT' AS is_default,
+               substring(pg_get_expr(c.relpartbound, c.oid) FROM $$FROM \\('([^']+)'\\)$$)::timestamptz AS range_from,
+               substring(pg_get_expr(c.relpartbound, c.oid) FROM $$TO \\('([^']+)'\\)$$)::timestamptz AS range_to
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = to_regclass(?)
+        ORDER BY range_from NULLS FIRST
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One partition of a sync table; {@code from} is null for a MINVALUE lower bound, and both bounds
+     * are null for the default partition.
+     */
+    public record Partition(String name, boolean isDefault, OffsetDateTime from, OffsetDateTime to) {
+
+        boolean overlaps(OffsetDateTime start, OffsetDateTime end) {
+            return !isDefault && (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+
+    /**
+     * @return the table's partitions in range order, or an empty list if the table is not partitioned
+     */
+    public List<Partition> findPartitions(NfType nfType) {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> new Partition(
+                rs.getString("relname"),
+                rs.getBoolean("is_default"),
+                rs.getObject("range_from", OffsetDateTime.class),
+                rs.getObject("range_to", OffsetDateTime.class)),
+            PmFileSyncBulkRepository.tableName(nfType));
+    }
+
+    /**
+     * Creates the partition for {@code day} unless an existing partition already covers part of it.
+     * Rows for that day already caught by the default partition are moved into the new partition, which
+     * is then attached; the caller is expected to run this in a transaction.
+     *
+     * @return the name of the created partition, or null if none was needed
+     */
+    public String createDailyPartition(NfType nfType, LocalDate day, List<Partition> existing) {
+        OffsetDateTime start = day.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime end = start.plusDays(1);
+        if (existing.stream().anyMatch(partition -> partition.overlaps(start, end))) {
+            return null;
+        }
+
+        String table = PmFileSyncBulkRepository.tableName(nfType);
+        String partition = table + "_p" + PARTITION_SUFFIX.format(day);
+        String bounds = "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')".formatted(day, day.plusDays(1));
+        String defaultPartition = existing.stream().filter(Partition::isDefault).map(Partition::name).findFirst().orElse(null);
+
+        boolean defaultHasRows = defaultPartition != null && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE time >= ? AND time < ?)", Boolean.class, start, end));
+        if (!defaultHasRows) {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table + " " + bounds);
+            return partition;
+        }
+
+        // A range the default partition already holds rows for cannot be added until those rows are moved out
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + " WHERE time >= ? AND time < ? RETURNING *) "
+            + "INSERT INTO " + partition + " SELECT * FROM moved", start, end);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition + " " + bounds);
+        return partition;
+    }
+
+    public void dropPartition(String partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    /**
+     * Deletes rows older than {@code cutoff} from the default partition, which retention cannot drop.
+     *
+     * @return number of rows deleted
+     */
+    public int purgeDefaultPartition(String defaultPartition, OffsetDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + defaultPartition + " WHERE time < ?", cutoff);
+    }
+
+    /**
+     * Makes the current transaction give up instead of queueing behind long-running ingest transactions,
+     * which would otherwise block every later writer behind the DDL's lock on the parent table.
+     */
+    public void setLockTimeout(long lockTimeoutMs) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock for the table so concurrent replicas do not run the
+     * same maintenance at once.
+     */
+    public boolean tryLock(NfType nfType) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))",
+            Boolean.class, "partition-maintenance:" + PmFileSyncBulkRepository.tableName(nfType)));
+    }
+}
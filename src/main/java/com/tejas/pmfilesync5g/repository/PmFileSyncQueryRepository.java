@@ -0,0 +1,87 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.FileQuery;
+import com.tejas.pmfilesync5g.dto.SyncedPmFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keyset-paginated reads of the DU/CU sync tables in {@code (time, id)} order. A page seeks past the
+ * previous page's last row instead of using OFFSET, so it costs the same wherever it starts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmFileSyncQueryRepository {
+
+    // Rows the driver fetches per round trip; only honoured inside a transaction
+    static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Passes the rows of one page to {@code consumer} as they are read, without holding them in memory.
+     * Up to {@code query.limit() + 1} rows are read, so the caller can tell whether another page follows.
+     * Must be called in a transaction for the rows to be fetched in batches of {@value #FETCH_SIZE}.
+     */
+    public void streamPage(FileQuery query, Consumer<SyncedPmFile> consumer) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (query.serialNumber() != null) {
+            conditions.add("serial_number = ?");
+            args.add(query.serialNumber());
+        }
+        if (query.status() != null) {
+            conditions.add("status = ?");
+            args.add(query.status());
+        }
+        if (query.from() != null) {
+            conditions.add("time >= ?");
+            args.add(query.from());
+        }
+        if (query.to() != null) {
+            conditions.add("time < ?");
+            args.add(query.to());
+        }
+        if (query.after() != null) {
+            // The plain time bound is implied by the row comparison but lets the planner prune earlier partitions
+            conditions.add("time >= ?");
+            conditions.add("(time, id) > (?, ?)");
+            args.add(query.after().time());
+            args.add(query.after().time());
+            args.add(query.after().id());
+        }
+        args.add(query.limit() + 1);
+
+        String sql = "SELECT id, rsync_id, time, serial_number, file_path, status, created_at, updated_at FROM "
+            + PmFileSyncBulkRepository.tableName(query.nfType())
+            + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + " ORDER BY time, id LIMIT ?";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(new SyncedPmFile(
+                rs.getObject("id", UUID.class),
+                rs.getObject("rsync_id", UUID.class),
+                rs.getObject("time", OffsetDateTime.class),
+                rs.getString("serial_number"),
+                rs.getString("file_path"),
+                rs.getShort("status"),
+                rs.getObject("created_at", OffsetDateTime.class),
+                rs.getObject("updated_at", OffsetDateTime.class)));
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.tejas.pmfilesync5g.repository;
+
+import com.tejas.pmfilesync5g.dto.ClaimedPmFile;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.entity.CuPmFileSync;
+import com.tejas.pmfilesync5g.entity.DuPmFileSync;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claim/complete/reclaim statements that move DU/CU sync rows through CREATED, IN_PROGRESS and COMPLETED.
+ * Each is a single statement, so it is atomic without an enclosing transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PmFileSyncQueueRepository {
+
+    // SKIP LOCKED lets concurrent claimers take disjoint rows instead of queueing on each other's locks
+    private static final String CLAIM_SQL = """
+        WITH picked AS (
+            SELECT id, time FROM %1$s
+            WHERE status = ?
+            ORDER BY time
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE %1$s t SET
+            status = ?,
+            lease_expires_at = now() + make_interval(secs => ?),
+            claimed_by = ?,
+            updated_at = now()
+        FROM picked
+        WHERE t.id = picked.id AND t.time = picked.time
+        RETURNING t.id, t.rsync_id, t.time, t.serial_number, t.file_path, t.lease_expires_at
+        """;
+
+    private static final String COMPLETE_SQL = """
+        UPDATE %s SET status = ?, lease_expires_at = NULL, updated_at = now()
+        WHERE id = ANY (?::uuid[]) AND status = ? AND claimed_by = ?
+        """;
+
+    private static final String RECLAIM_SQL = """
+        UPDATE %s SET status = ?, lease_expires_at = NULL, claimed_by = NULL, updated_at = now()
+        WHERE status = ? AND lease_expires_at < now()
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims up to {@code limit} of the oldest CREATED rows for {@code worker}, marking them IN_PROGRESS
+     * until {@code lease} from now.
+     */
+    public List<ClaimedPmFile> claim(NfType nfType, String worker, int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_SQL.formatted(PmFileSyncBulkRepository.tableName(nfType)),
+            (rs, rowNum) -> new ClaimedPmFile(
+                rs.getObject("id", UUID.class),
+                rs.getObject("rsync_id", UUID.class),
+                rs.getObject("time", OffsetDateTime.class),
+                rs.getString("serial_number"),
+                rs.getString("file_path"),
+                rs.getObject("lease_expires_at", OffsetDateTime.class)),
+            status(nfType, Lifecycle.CREATED), limit,
+            status(nfType, Lifecycle.IN_PROGRESS), lease.toMillis() / 1000.0, worker);
+    }
+
+    /**
+     * Marks the given rows COMPLETED if they are still IN_PROGRESS under {@code worker}'s claim; rows whose
+     * lease expired and were reclaimed, or that were re-ingested meanwhile, are left alone.
+     *
+     * @return number of rows completed
+     */
+    public int complete(NfType nfType, String worker, Collection<UUID> ids) {
+        return jdbcTemplate.update(COMPLETE_SQL.formatted(PmFileSyncBulkRepository.tableName(nfType)), ps -> {
+            ps.setShort(1, status(nfType, Lifecycle.COMPLETED));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+            ps.setShort(3, status(nfType, Lifecycle.IN_PROGRESS));
+            ps.setString(4, worker);
+        });
+    }
+
+    /**
+     * Returns IN_PROGRESS rows whose lease has expired to CREATED so they can be claimed again.
+     *
+     * @return number of rows reclaimed
+     */
+    public int reclaimExpired(NfType nfType) {
+        return jdbcTemplate.update(RECLAIM_SQL.formatted(PmFileSyncBulkRepository.tableName(nfType)),
+            status(nfType, Lifecycle.CREATED), status(nfType, Lifecycle.IN_PROGRESS));
+    }
+
+    private enum Lifecycle {
+        CREATED,
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    private static short status(NfType nfType, Lifecycle lifecycle) {
+        return switch (nfType) {
+            case DU -> DuPmFileSync.Status.valueOf(lifecycle.name()).getValue();
+            case CU -> CuPmFileSync.Status.valueOf(lifecycle.name()).getValue();
+        };
+    }
+}
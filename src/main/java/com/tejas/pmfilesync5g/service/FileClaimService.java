@@ -0,0 +1,118 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.ClaimedPmFile;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.repository.PmFileSyncQueueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work queue for downstream PM parsers over the sync rows: workers claim batches of CREATED rows under a
+ * lease, complete them when done, and rows whose lease runs out are reclaimed every
+ * {@code reclaim-interval-ms} so another worker can pick them up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileClaimService {
+
+    private final PmFileSyncQueueRepository queueRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.file-queue.default-lease-ms:300000}")
+    private long defaultLeaseMs;
+
+    @Value("${app.file-queue.max-lease-ms:3600000}")
+    private long maxLeaseMs;
+
+    @Value("${app.file-queue.max-claim:1000}")
+    private int maxClaim;
+
+    @Value("${app.file-queue.reclaim-interval-ms:60000}")
+    private long reclaimIntervalMs;
+
+    private ScheduledExecutorService reclaimer;
+
+    @PostConstruct
+    public void start() {
+        reclaimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "file-queue-reclaimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reclaimer.scheduleWithFixedDelay(this::reclaimAll, reclaimIntervalMs, reclaimIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reclaimer != null) {
+            reclaimer.shutdownNow();
+        }
+    }
+
+    /**
+     * Claims up to {@code limit} (capped at {@code max-claim}) of the oldest CREATED rows for {@code worker}.
+     *
+     * @param leaseMs lease length, or null for {@code default-lease-ms}; capped at {@code max-lease-ms}
+     */
+    public List<ClaimedPmFile> claim(NfType nfType, String worker, int limit, Long leaseMs) {
+        long lease = Math.min(leaseMs != null ? leaseMs : defaultLeaseMs, maxLeaseMs);
+        List<ClaimedPmFile> claimed = queueRepository.claim(nfType, worker, Math.min(limit, maxClaim), Duration.ofMillis(lease));
+        counter("pm.sync.queue.claimed", nfType).increment(claimed.size());
+        log.debug("Worker {} claimed {} {} files for {} ms", worker, claimed.size(), nfType, lease);
+        return claimed;
+    }
+
+    /**
+     * @return number of rows completed; ids no longer claimed by {@code worker} are skipped
+     */
+    public int complete(NfType nfType, String worker, List<UUID> ids) {
+        int completed = queueRepository.complete(nfType, worker, ids);
+        counter("pm.sync.queue.completed", nfType).increment(completed);
+        if (completed < ids.size()) {
+            log.info("Worker {} completed {} of {} {} files; the rest are no longer claimed by it",
+                worker, completed, ids.size(), nfType);
+        }
+        return completed;
+    }
+
+    /**
+     * @return number of rows whose expired lease was released back to CREATED
+     */
+    public int reclaimExpired(NfType nfType) {
+        int reclaimed = queueRepository.reclaimExpired(nfType);
+        counter("pm.sync.queue.reclaimed", nfType).increment(reclaimed);
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} {} files with expired leases", reclaimed, nfType);
+        }
+        return reclaimed;
+    }
+
+    void reclaimAll() {
+        for (NfType nfType : NfType.values()) {
+            try {
+                reclaimExpired(nfType);
+            } catch (Exception e) {
+                log.error("Error reclaiming expired {} leases", nfType, e);
+            }
+        }
+    }
+
+    private Counter counter(String name, NfType nfType) {
+        return meterRegistry.counter(name, "nf_type", nfType.name().toLowerCase(Locale.ROOT));
+    }
+}
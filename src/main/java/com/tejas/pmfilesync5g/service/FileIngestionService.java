@@ -1,194 +1,256 @@
 package com.tejas.pmfilesync5g.service;
 
-import com.tejas.pmfilesync5g.entity.CuPmFileSync;
-import com.tejas.pmfilesync5g.entity.DuPmFileSync;
-import com.tejas.pmfilesync5g.repository.CuPmFileSyncRepository;
-import com.tejas.pmfilesync5g.repository.DuPmFileSyncRepository;
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.ListedArchive;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+import com.tejas.pmfilesync5g.dto.PmFileRecord;
+import com.tejas.pmfilesync5g.dto.StorageMode;
+import com.tejas.pmfilesync5g.repository.PmArchiveRepository;
+import com.tejas.pmfilesync5g.repository.PmFileSyncBulkRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileIngestionService {
 
-    private final DuPmFileSyncRepository duRepository;
-    private final CuPmFileSyncRepository cuRepository;
+    private final PmFileSyncBulkRepository bulkRepository;
+    private final PmArchiveRepository archiveRepository;
     private final SftpService sftpService;
+    private final TarListingCache listingCache;
+    private final TransactionTemplate transactionTemplate;
+    private final PipelineMetrics metrics;
+    private final WriteBehindBuffer writeBehindBuffer;
+    private final MeasurementExtractionService measurementExtraction;
 
-    private static final Pattern PM_FILE_PATTERN = Pattern.compile(
-        "A(\\d{8})\\.(\\d{4})([+-]\\d{4})-(\\d{4})([+-]\\d{4})_(\\d{3}-\\d{2}-\\d{5})_.*\\.xml"
-    );
+    @Value("${app.ingestion.listing-concurrency:16}")
+    private int listingConcurrency;
     
-    @Transactional
-    public void processVesEvent(String location, String sourceName, UUID rsyncId) {
+    @Value("${app.storage.mode:flat}")
+    private StorageMode storageMode;
+    
+    // Listings are simulated until every EMS negotiates with the SFTP client; false reads the real archives
+    @Value("${app.sftp.simulate-listing:true}")
+    private boolean simulateListing;
+    
+    private final ExecutorService listingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Ingests whole notifications and batches: lists every archive concurrently, then upserts all DU and
+     * CU rows, or archives and members in normalized storage, in a single transaction. The archives are
+     * expected to come from one topic, which the upsert timings are tagged with.
+     */
+    public void ingest(List<ArchiveRef> archives) {
         try {
-            log.info("Processing VES event for location: {} from source: {}", location, sourceName);
-            
-            // Temporary workaround for SFTP algorithm negotiation issue
-            // Simulate tar file contents based on location path
-            List<String> xmlFiles = simulateTarFileContents(location);
-            log.info("Simulated {} XML files for tar: {}", xmlFiles.size(), location);
-            
-            // TODO: Uncomment when SFTP algorithm issue is resolved
-            // List<String> xmlFiles = sftpService.readTarFileContents(location);
+            Listing listing = list(archives);
             
-            boolean isDu = location.toLowerCase().contains("/o-du/") || location.toLowerCase().contains("_du_");
-            boolean isCu = location.toLowerCase().contains("/o-cu/") || location.toLowerCase().contains("_cu_");
-            
-            if (!isDu && !isCu) {
-                log.warn("Could not determine file type (DU/CU) from location: {}", location);
-                return;
-            }
-            
-            // Serial number will be extracted from individual XML filenames
-            
-            for (String xmlFile : xmlFiles) {
-                FileMetadata metadata = extractFileMetadata(xmlFile);
-                
-                if (isDu) {
-                    saveDuRecord(rsyncId, metadata.time, metadata.serialNumber, xmlFile);
+            String topic = archives.isEmpty() ? null : archives.get(0).topic();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (storageMode == StorageMode.NORMALIZED) {
+                    upsertArchives(topic, NfType.DU, listing.duArchives());
+                    upsertArchives(topic, NfType.CU, listing.cuArchives());
                 } else {
-                    saveCuRecord(rsyncId, metadata.time, metadata.serialNumber, xmlFile);
+                    upsert(topic, NfType.DU, listing.duRecords());
+                    upsert(topic, NfType.CU, listing.cuRecords());
                 }
-            }
+            });
             
-            log.info("Successfully processed {} XML files for {}", xmlFiles.size(), isDu ? "DU" : "CU");
+            log.info("Bulk ingested {} archives: {} DU and {} CU XML files",
+                archives.size(), listing.duRecords().size(), listing.cuRecords().size());
             
         } catch (Exception e) {
-            log.error("Error processing VES event for location: {}", location, e);
-            throw new RuntimeException("Failed to process VES event", e);
+            log.error("Error bulk ingesting {} archives", archives.size(), e);
+            throw new RuntimeException("Failed to bulk ingest VES events", e);
         }
     }
     
-    private void saveDuRecord(UUID rsyncId, OffsetDateTime time, String serialNumber, String filePath) {
-        // Upsert by unique file_path: if exists -> update timestamps, else insert
-        duRepository.findByFilePath(filePath).ifPresentOrElse(existing -> {
-            existing.setRsyncId(rsyncId);
-            existing.setTime(time);
-            existing.setSerialNumber(serialNumber);
-            existing.setStatus(DuPmFileSync.Status.CREATED.getValue());
-            // Per requirement: update created_at and updated_at on re-ingest
-            existing.setCreatedAt(OffsetDateTime.now());
-            existing.setUpdatedAt(OffsetDateTime.now());
-            duRepository.save(existing);
-            log.debug("Updated existing DU record for path: {}", filePath);
-        }, () -> {
-            DuPmFileSync record = new DuPmFileSync();
-            record.setRsyncId(rsyncId);
-            record.setTime(time);
-            record.setSerialNumber(serialNumber);
-            record.setFilePath(filePath);
-            record.setStatus(DuPmFileSync.Status.CREATED.getValue());
-            try {
-                duRepository.save(record);
-                log.debug("Saved new DU record for path: {}", filePath);
-            } catch (org.springframework.dao.DataIntegrityViolationException e) {
-                // Handle rare race: another thread inserted concurrently
-                duRepository.findByFilePath(filePath).ifPresent(existing -> {
-                    existing.setRsyncId(rsyncId);
-                    existing.setTime(time);
-                    existing.setSerialNumber(serialNumber);
-                    existing.setStatus(DuPmFileSync.Status.CREATED.getValue());
-                    existing.setCreatedAt(OffsetDateTime.now());
-                    existing.setUpdatedAt(OffsetDateTime.now());
-                    duRepository.save(existing);
-                    log.debug("Resolved race and updated existing DU record for path: {}", filePath);
-                });
-            }
-        });
+    /**
+     * Write-behind variant of {@link #ingest}: lists the archives, then hands their rows to the
+     * {@link WriteBehindBuffer} to be written together with other records' rows. Falls back to
+     * {@link #ingest} when write-behind is disabled or storage is normalized, as the buffer merges
+     * flat rows.
+     *
+     * @return completes once the rows are committed
+     */
+    public CompletableFuture<Void> ingestWriteBehind(List<ArchiveRef> archives) {
+        if (!writeBehindBuffer.isEnabled() || storageMode == StorageMode.NORMALIZED) {
+            ingest(archives);
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        try {
+            Listing listing = list(archives);
+            String topic = archives.isEmpty() ? null : archives.get(0).topic();
+            log.info("Buffered {} archives: {} DU and {} CU XML files",
+                archives.size(), listing.duRecords().size(), listing.cuRecords().size());
+            return writeBehindBuffer.submit(topic, listing.duRecords(), listing.cuRecords());
+        } catch (Exception e) {
+            log.error("Error listing {} archives for write-behind", archives.size(), e);
+            throw new RuntimeException("Failed to bulk ingest VES events", e);
+        }
     }
     
-    private void saveCuRecord(UUID rsyncId, OffsetDateTime time, String serialNumber, String filePath) {
-        // Upsert by unique file_path: if exists -> update timestamps, else insert
-        cuRepository.findByFilePath(filePath).ifPresentOrElse(existing -> {
-            existing.setRsyncId(rsyncId);
-            existing.setTime(time);
-            existing.setSerialNumber(serialNumber);
-            existing.setStatus(CuPmFileSync.Status.CREATED.getValue());
-            // Per requirement: update created_at and updated_at on re-ingest
-            existing.setCreatedAt(OffsetDateTime.now());
-            existing.setUpdatedAt(OffsetDateTime.now());
-            cuRepository.save(existing);
-            log.debug("Updated existing CU record for path: {}", filePath);
-        }, () -> {
-            CuPmFileSync record = new CuPmFileSync();
-            record.setRsyncId(rsyncId);
-            record.setTime(time);
-            record.setSerialNumber(serialNumber);
-            record.setFilePath(filePath);
-            record.setStatus(CuPmFileSync.Status.CREATED.getValue());
-            try {
-                cuRepository.save(record);
-                log.debug("Saved new CU record for path: {}", filePath);
-            } catch (org.springframework.dao.DataIntegrityViolationException e) {
-                // Handle rare race: another thread inserted concurrently
-                cuRepository.findByFilePath(filePath).ifPresent(existing -> {
-                    existing.setRsyncId(rsyncId);
-                    existing.setTime(time);
-                    existing.setSerialNumber(serialNumber);
-                    existing.setStatus(CuPmFileSync.Status.CREATED.getValue());
-                    existing.setCreatedAt(OffsetDateTime.now());
-                    existing.setUpdatedAt(OffsetDateTime.now());
-                    cuRepository.save(existing);
-                    log.debug("Resolved race and updated existing CU record for path: {}", filePath);
-                });
+    /**
+     * Lists every archive concurrently and splits the resulting archives and rows by NF type; archives
+     * without a DU/CU marker are skipped.
+     */
+    private Listing list(List<ArchiveRef> archives) throws Exception {
+        List<ArchiveRef> typed = new ArrayList<>(archives.size());
+        List<NfType> nfTypes = new ArrayList<>(archives.size());
+        for (ArchiveRef archive : archives) {
+            NfType nfType = NfType.fromLocation(archive.location());
+            if (nfType == null) {
+                log.warn("Could not determine file type (DU/CU) from location: {}", archive.location());
+                continue;
             }
-        });
+            typed.add(archive);
+            nfTypes.add(nfType);
+        }
+        
+        Listing listing = new Listing(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        List<List<PmFileRecord>> listings = listConcurrently(typed);
+        for (int i = 0; i < listings.size(); i++) {
+            boolean du = nfTypes.get(i) == NfType.DU;
+            (du ? listing.duArchives() : listing.cuArchives()).add(new ListedArchive(typed.get(i), listings.get(i)));
+            (du ? listing.duRecords() : listing.cuRecords()).addAll(listings.get(i));
+        }
+        return listing;
+    }
+    
+    private record Listing(List<ListedArchive> duArchives, List<ListedArchive> cuArchives,
+                           List<PmFileRecord> duRecords, List<PmFileRecord> cuRecords) {
     }
     
-    private FileMetadata extractFileMetadata(String fileName) {
-        Matcher matcher = PM_FILE_PATTERN.matcher(fileName);
-        if (matcher.find()) {
-            String dateStr = matcher.group(1);        // 20250813
-            String startTime = matcher.group(2);     // 2215
-            String timezone = matcher.group(3);      // +0530
-            String serialNumber = matcher.group(6);  // 001-01-64160
+    /**
+     * Lists the archives on virtual threads, at most {@code listingConcurrency} at a time, so a
+     * notification takes as long as its slowest archive rather than the sum of all of them.
+     * Results keep the order of {@code archives}; the first failure cancels the remaining listings.
+     */
+    private List<List<PmFileRecord>> listConcurrently(List<ArchiveRef> archives) throws Exception {
+        if (archives.size() == 1) {
+            return List.of(listRecords(archives.get(0)));
+        }
+        
+        Semaphore permits = new Semaphore(listingConcurrency);
+        List<Future<List<PmFileRecord>>> futures = new ArrayList<>(archives.size());
+        try {
+            for (ArchiveRef archive : archives) {
+                futures.add(listingExecutor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return listRecords(archive);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
             
-            try {
-                // Parse date and time
-                String dateTimeStr = dateStr + startTime;
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
-                LocalDateTime localDateTime = LocalDateTime.parse(dateTimeStr, formatter);
-                
-                // Create ZoneOffset from timezone string (+0530 -> +05:30)
-                ZoneOffset zoneOffset = ZoneOffset.of(
-                    timezone.substring(0, 3) + ":" + timezone.substring(3)
-                );
-                OffsetDateTime time = localDateTime.atOffset(zoneOffset);
-                
-                return new FileMetadata(time, serialNumber);
-            } catch (Exception e) {
-                log.warn("Failed to parse metadata from filename: {}, error: {}", fileName, e.getMessage());
-                throw new IllegalArgumentException("Invalid PM file format: " + fileName, e);
+            List<List<PmFileRecord>> listings = new ArrayList<>(archives.size());
+            for (Future<List<PmFileRecord>> future : futures) {
+                listings.add(future.get());
             }
+            return listings;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        listingExecutor.shutdownNow();
+    }
+    
+    private void upsert(String topic, NfType nfType, List<PmFileRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        
+        Timer.Sample sample = metrics.start();
+        int upserted = bulkRepository.upsert(nfType, records);
+        metrics.stop(sample, PipelineMetrics.Stage.DB_UPSERT, topic, nfType);
+        metrics.recordUpserted(topic, nfType, upserted);
+    }
+    
+    private void upsertArchives(String topic, NfType nfType, List<ListedArchive> archives) {
+        if (archives.isEmpty()) {
+            return;
         }
         
-        throw new IllegalArgumentException("Filename does not match PM file pattern: " + fileName);
+        Timer.Sample sample = metrics.start();
+        int upserted = archiveRepository.upsert(nfType, archives);
+        metrics.stop(sample, PipelineMetrics.Stage.DB_UPSERT, topic, nfType);
+        metrics.recordUpserted(topic, nfType, upserted);
     }
     
-    // Helper class to hold extracted file metadata
-    private static class FileMetadata {
-        final OffsetDateTime time;
-        final String serialNumber;
+    /**
+     * Builds the sync rows for one archive, serving the member listing from the content-addressed
+     * cache when EMS re-announces an archive it already sent. With measurement extraction enabled the
+     * listing comes from streaming the archive, which extracts its counters on the way.
+     */
+    private List<PmFileRecord> listRecords(ArchiveRef archive) throws Exception {
+        // Extraction needs the members' content, so it streams the archive even when its listing is cached
+        TarListingCache.Listing listing = measurementExtraction.isEnabled() ? null : listingCache.get(archive);
+        if (listing == null) {
+            Timer.Sample sample = metrics.start();
+            List<String> xmlFiles = measurementExtraction.isEnabled()
+                ? measurementExtraction.extract(archive)
+                : listXmlFiles(archive);
+            metrics.stop(sample, PipelineMetrics.Stage.TAR_LISTING, archive);
+            
+            sample = metrics.start();
+            List<PmFileMetadata> metadata = new ArrayList<>(xmlFiles.size());
+            for (String xmlFile : xmlFiles) {
+                metadata.add(extractFileMetadata(xmlFile));
+            }
+            metrics.stop(sample, PipelineMetrics.Stage.FILENAME_PARSE, archive);
+            listing = new TarListingCache.Listing(List.copyOf(xmlFiles), List.copyOf(metadata));
+            listingCache.put(archive, listing);
+        } else {
+            log.debug("Tar listing cache hit for location: {}", archive.location());
+        }
+        metrics.recordArchive(archive, NfType.fromLocation(archive.location()), listing.xmlFiles().size());
         
-        FileMetadata(OffsetDateTime time, String serialNumber) {
-            this.time = time;
-            this.serialNumber = serialNumber;
+        List<PmFileRecord> records = new ArrayList<>(listing.xmlFiles().size());
+        for (int i = 0; i < listing.xmlFiles().size(); i++) {
+            PmFileMetadata metadata = listing.metadata().get(i);
+            records.add(new PmFileRecord(archive.rsyncId(), metadata.time(), metadata.serialNumber(), listing.xmlFiles().get(i)));
         }
+        return records;
+    }
+    
+    private List<String> listXmlFiles(ArchiveRef archive) throws Exception {
+        if (!simulateListing) {
+            return sftpService.readTarFileContents(archive);
+        }
+        
+        String location = archive.location();
+        // Temporary workaround for SFTP algorithm negotiation issue
+        // Simulate tar file contents based on location path
+        List<String> xmlFiles = simulateTarFileContents(location);
+        log.info("Simulated {} XML files for tar: {}", xmlFiles.size(), location);
+        return xmlFiles;
+    }
+    
+    private PmFileMetadata extractFileMetadata(String fileName) {
+        return PmFileNameParser.parse(fileName);
     }
     
     /**
@@ -0,0 +1,89 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.PmCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends extracted counter values as CSV to one file per UTC day of writing,
+ * {@code <file-dir>/pm-counters-yyyyMMdd.csv}, for a downstream loader to pick up.
+ */
+@Component
+public class FileMeasurementSink {
+
+    private static final String HEADER = "time,nf_type,serial_number,meas_info_id,meas_obj_ldn,meas_type,value";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Value("${app.ingestion.extraction.file-dir:./pm-counters}")
+    private String fileDir;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Appends one batch; batches from concurrent listings are written one at a time so their lines never interleave.
+     */
+    public void write(List<PmCounter> counters) throws IOException {
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            append(counters);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(List<PmCounter> counters) throws IOException {
+        Path dir = Path.of(fileDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("pm-counters-" + LocalDate.now(ZoneOffset.UTC).format(DAY) + ".csv");
+        boolean isNew = Files.notExists(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (isNew) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (PmCounter counter : counters) {
+                writer.write(counter.time().toString());
+                writer.write(',');
+                writer.write(counter.nfType().name());
+                writer.write(',');
+                writer.write(csv(counter.serialNumber()));
+                writer.write(',');
+                writer.write(csv(counter.measInfoId()));
+                writer.write(',');
+                writer.write(csv(counter.measObjLdn()));
+                writer.write(',');
+                writer.write(csv(counter.measType()));
+                writer.write(',');
+                writer.write(counter.value() == null ? "" : counter.value().toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String csv(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
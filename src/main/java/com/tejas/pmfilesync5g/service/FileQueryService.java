@@ -0,0 +1,113 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tejas.pmfilesync5g.dto.FileCursor;
+import com.tejas.pmfilesync5g.dto.FileQuery;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.SyncedPmFile;
+import com.tejas.pmfilesync5g.entity.CuPmFileSync;
+import com.tejas.pmfilesync5g.entity.DuPmFileSync;
+import com.tejas.pmfilesync5g.exception.InvalidFileQueryException;
+import com.tejas.pmfilesync5g.repository.PmFileSyncQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+
+/**
+ * Pages through the DU/CU sync rows for the file query API, writing each page as JSON straight from the
+ * result set: {@code {"items": [...], "nextCursor": "..."}}, where {@code nextCursor} is null on the last page.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileQueryService {
+
+    private final PmFileSyncQueryRepository queryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.file-query.max-limit:10000}")
+    private int maxLimit;
+
+    /**
+     * Validates the request parameters up front, since errors can no longer be reported once a page
+     * has started streaming.
+     *
+     * @throws InvalidFileQueryException if the status, time range or cursor is invalid
+     */
+    public FileQuery buildQuery(NfType nfType, String serialNumber, OffsetDateTime from, OffsetDateTime to,
+                                String status, String cursor, int limit) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidFileQueryException("'from' must be before 'to'");
+        }
+        return new FileQuery(nfType, serialNumber, from, to,
+            status == null ? null : statusValue(nfType, status),
+            cursor == null ? null : FileCursor.decode(cursor),
+            Math.min(limit, maxLimit));
+    }
+
+    @Transactional(readOnly = true)
+    public void writePage(FileQuery query, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            PageWriter page = new PageWriter(generator, query.limit());
+            queryRepository.streamPage(query, page::write);
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", page.hasMore ? page.last.encode() : null);
+            generator.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static short statusValue(NfType nfType, String status) {
+        String name = status.toUpperCase(Locale.ROOT);
+        try {
+            return switch (nfType) {
+                case DU -> DuPmFileSync.Status.valueOf(name).getValue();
+                case CU -> CuPmFileSync.Status.valueOf(name).getValue();
+            };
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFileQueryException("Unknown status: " + status, e);
+        }
+    }
+
+    /**
+     * Writes up to {@code limit} rows; the one extra row the repository reads only marks that more follow.
+     */
+    private static final class PageWriter {
+
+        private final JsonGenerator generator;
+        private final int limit;
+        private int written;
+        private FileCursor last;
+        private boolean hasMore;
+
+        PageWriter(JsonGenerator generator, int limit) {
+            this.generator = generator;
+            this.limit = limit;
+        }
+
+        void write(SyncedPmFile file) {
+            if (written == limit) {
+                hasMore = true;
+                return;
+            }
+            try {
+                generator.writeObject(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            written++;
+            last = new FileCursor(file.time(), file.id());
+        }
+    }
+}
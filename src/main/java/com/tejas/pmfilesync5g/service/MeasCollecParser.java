@@ -0,0 +1,114 @@
+package com.tejas.pmfilesync5g.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming StAX parser for 3GPP TS 32.435 {@code measCollecFile} documents. Each counter value is
+ * passed on as soon as it is read, so memory is bounded by the counter names of one {@code measInfo},
+ * not by the size of the file.
+ * <p>
+ * Understands both the {@code <measType p="n">}/{@code <r p="n">} form and the older
+ * {@code <measTypes>}/{@code <measResults>} form with space-separated lists. Namespaces are ignored,
+ * and DTDs and external entities are refused.
+ */
+public final class MeasCollecParser {
+
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    private MeasCollecParser() {
+    }
+
+    /**
+     * One counter value of one measured object; {@code value} is the raw text, e.g. {@code "NIL"}.
+     */
+    public record Counter(String measInfoId, String measObjLdn, String measType, String value) {
+    }
+
+    /**
+     * Parses the document on {@code in} without closing it.
+     */
+    public static void parse(InputStream in, Consumer<Counter> consumer) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            String measInfoId = null;
+            String measObjLdn = null;
+            Map<String, String> typesByPosition = new HashMap<>();
+            List<String> typeList = new ArrayList<>();
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "measInfo" -> {
+                        measInfoId = reader.getAttributeValue(null, "measInfoId");
+                        typesByPosition.clear();
+                        typeList.clear();
+                    }
+                    case "measType" -> {
+                        String p = reader.getAttributeValue(null, "p");
+                        String name = reader.getElementText().trim();
+                        typesByPosition.put(p, name);
+                    }
+                    case "measTypes" -> typeList.addAll(split(reader.getElementText()));
+                    case "measValue" -> measObjLdn = reader.getAttributeValue(null, "measObjLdn");
+                    case "r" -> {
+                        String p = reader.getAttributeValue(null, "p");
+                        String value = reader.getElementText().trim();
+                        String type = typesByPosition.get(p);
+                        if (type == null && p != null) {
+                            type = positional(typeList, p);
+                        }
+                        consumer.accept(new Counter(measInfoId, measObjLdn, type != null ? type : p, value));
+                    }
+                    case "measResults" -> {
+                        List<String> values = split(reader.getElementText());
+                        for (int i = 0; i < values.size(); i++) {
+                            String type = i < typeList.size() ? typeList.get(i) : Integer.toString(i + 1);
+                            consumer.accept(new Counter(measInfoId, measObjLdn, type, values.get(i)));
+                        }
+                    }
+                    default -> {
+                        // Headers, footers, jobs and periods carry nothing stored per counter
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String positional(List<String> typeList, String p) {
+        try {
+            int index = Integer.parseInt(p) - 1;
+            return index >= 0 && index < typeList.size() ? typeList.get(index) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> split(String text) {
+        List<String> parts = new ArrayList<>();
+        for (String part : text.trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,117 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmCounter;
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+import com.tejas.pmfilesync5g.repository.PmCounterRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams an archive once over SFTP, parsing every PM XML member with StAX as it passes and writing the
+ * counter values to the configured sink in batches of {@code batch-size}: the {@code pm_counter} table
+ * ({@code postgres}) or daily CSV files ({@code file}). Nothing is written to temporary files and at most
+ * one batch is held in memory per archive, whatever the archive's size.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MeasurementExtractionService {
+
+    static final String SINK_POSTGRES = "postgres";
+    static final String SINK_FILE = "file";
+
+    private final SftpService sftpService;
+    private final PmCounterRepository counterRepository;
+    private final FileMeasurementSink fileSink;
+    private final PipelineMetrics metrics;
+
+    @Value("${app.ingestion.extraction.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.ingestion.extraction.sink:postgres}")
+    private String sink;
+
+    @Value("${app.ingestion.extraction.batch-size:5000}")
+    private int batchSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Extracts the counters of every XML member of {@code archive}.
+     *
+     * @return names of the XML members, in archive order, as a listing would return them
+     */
+    public List<String> extract(ArchiveRef archive) throws Exception {
+        NfType nfType = NfType.fromLocation(archive.location());
+        List<String> xmlFiles = new ArrayList<>();
+        List<PmCounter> batch = new ArrayList<>(batchSize);
+        long[] extracted = new long[1];
+
+        Timer.Sample sample = metrics.start();
+        sftpService.streamTarFile(archive, (entry, content) -> {
+            String name = entry.name().trim();
+            if (!name.endsWith(".xml")) {
+                return;
+            }
+            xmlFiles.add(name);
+
+            PmFileMetadata metadata = PmFileNameParser.parse(name);
+            try {
+                MeasCollecParser.parse(content, counter -> {
+                    batch.add(new PmCounter(metadata.time(), metadata.serialNumber(), nfType, counter.measInfoId(),
+                        counter.measObjLdn(), counter.measType(), numeric(counter.value())));
+                    if (batch.size() >= batchSize) {
+                        extracted[0] += flush(batch);
+                    }
+                });
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid PM XML " + name + " in " + archive.location(), e);
+            }
+        });
+        extracted[0] += flush(batch);
+        metrics.stop(sample, PipelineMetrics.Stage.MEASUREMENT_EXTRACTION, archive);
+        metrics.recordCountersExtracted(archive.topic(), nfType, extracted[0]);
+
+        log.info("Extracted {} counter values from {} XML files in {}", extracted[0], xmlFiles.size(), archive.location());
+        return xmlFiles;
+    }
+
+    private int flush(List<PmCounter> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        try {
+            if (SINK_FILE.equalsIgnoreCase(sink)) {
+                fileSink.write(batch);
+            } else {
+                counterRepository.upsert(batch);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.clear();
+        return size;
+    }
+
+    private static Double numeric(String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
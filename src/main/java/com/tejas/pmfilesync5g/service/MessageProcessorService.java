@@ -1,81 +1,203 @@
 package com.tejas.pmfilesync5g.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tejas.pmfilesync5g.dto.VesEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.VesNotification;
 import com.tejas.pmfilesync5g.exception.MessageProcessingException;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.EnableRetry;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
-@EnableRetry
 @RequiredArgsConstructor
 public class MessageProcessorService {
 
-    private final ObjectMapper objectMapper;
+    private final VesNotificationReader notificationReader;
     private final FileIngestionService fileIngestionService;
+    private final PipelineMetrics metrics;
+    private final NotificationDeduplicator deduplicator;
 
-    @Value("${app.kafka.error-handling.max-retries:3}")
-    private int maxRetries;
-
-    @Value("${app.kafka.error-handling.retry-backoff-ms:1000}")
-    private long retryBackoffMs;
-
-    private final AtomicLong totalMessagesProcessed = new AtomicLong(0);
-    private final AtomicLong processingErrors = new AtomicLong(0);
-
-    @Retryable(retryFor = {MessageProcessingException.class}, 
-               maxAttempts = 3,
-               backoff = @Backoff(delay = 1000, multiplier = 2))
+    /**
+     * Processes one VES notification. Failures are thrown as {@link MessageProcessingException};
+     * retries are scheduled by the consumer's retry tiers rather than here.
+     */
     public void processMessage(String message, String topicName) {
         try {
             log.debug("Processing VES event message from topic: {}", topicName);
             
-            VesEvent vesEvent = objectMapper.readValue(message, VesEvent.class);
-            
-            if (vesEvent.getEvent() == null || vesEvent.getEvent().getNotificationFields() == null) {
-                log.warn("Invalid VES event structure, missing event or notificationFields");
+            List<ArchiveRef> archives = freshArchives(message, topicName);
+            if (archives == null) {
                 return;
             }
             
-            String sourceName = vesEvent.getEvent().getCommonEventHeader().getSourceName();
-            UUID rsyncId = UUID.randomUUID();
-            
-            var notificationFields = vesEvent.getEvent().getNotificationFields();
-            if (notificationFields.getArrayOfNamedHashMap() != null) {
-                for (var namedHashMap : notificationFields.getArrayOfNamedHashMap()) {
-                    if (namedHashMap.getHashMap() != null) {
-                        String location = namedHashMap.getHashMap().getLocation();
-                        if (location != null && !location.isEmpty()) {
-                            log.info("Processing file location: {} from source: {}", location, sourceName);
-                            fileIngestionService.processVesEvent(location, sourceName, rsyncId);
-                        }
-                    }
-                }
+            if (!archives.isEmpty()) {
+                log.info("Processing {} file locations from source: {}", archives.size(), archives.get(0).sourceName());
+                fileIngestionService.ingest(archives);
+                deduplicator.markIngested(archives);
             }
             
-            totalMessagesProcessed.incrementAndGet();
+            metrics.recordProcessed(topicName, 1);
             
         } catch (Exception e) {
-            processingErrors.incrementAndGet();
-            log.error("Error processing VES event message from topic: {} (attempt will be retried)", topicName, e);
-            throw new MessageProcessingException("Failed to process VES event message from topic: " + topicName, e);
+            throw failed(topicName, e);
+        }
+    }
+
+    /**
+     * Write-behind variant of {@link #processMessage}: hands the notification's rows to the
+     * {@link WriteBehindBuffer} and returns without waiting for them to be written.
+     *
+     * @return completes once the rows have been committed, batched with those of other records, or
+     *         completes exceptionally with a {@link MessageProcessingException} if the flush failed
+     * @throws MessageProcessingException if the notification could not be parsed or its files listed
+     */
+    public CompletableFuture<Void> processMessageWriteBehind(String message, String topicName) {
+        List<ArchiveRef> archives;
+        CompletableFuture<Void> written;
+        try {
+            log.debug("Processing VES event message from topic: {}", topicName);
+            
+            archives = freshArchives(message, topicName);
+            if (archives == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (archives.isEmpty()) {
+                metrics.recordProcessed(topicName, 1);
+                return CompletableFuture.completedFuture(null);
+            }
+            
+            log.info("Processing {} file locations from source: {}", archives.size(), archives.get(0).sourceName());
+            written = fileIngestionService.ingestWriteBehind(archives);
+        } catch (Exception e) {
+            throw failed(topicName, e);
+        }
+        
+        List<ArchiveRef> ingested = archives;
+        return written.handle((ignored, e) -> {
+            if (e != null) {
+                throw failed(topicName, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+            deduplicator.markIngested(ingested);
+            metrics.recordProcessed(topicName, 1);
+            return null;
+        });
+    }
+
+    /**
+     * Batch counterpart of {@link #processMessage}: parses every message of a poll, then hands all
+     * announced tar locations to {@link FileIngestionService#ingest} as one bulk operation.
+     * Unparseable messages are counted and left out so a single poison record cannot hold back the batch.
+     *
+     * @return the unparseable messages, for the caller to dead-letter
+     */
+    public List<UnparseableMessage> processBatch(List<String> messages, String topicName) {
+        List<ArchiveRef> archives = new ArrayList<>();
+        List<UnparseableMessage> unparseable = new ArrayList<>();
+        int parsed = 0;
+        
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                List<ArchiveRef> extracted = extractArchives(read(messages.get(i), topicName), topicName);
+                if (extracted != null) {
+                    archives.addAll(extracted);
+                    parsed++;
+                }
+            } catch (JsonProcessingException e) {
+                metrics.recordFailed(topicName);
+                log.error("Skipping unparseable VES event message in batch from topic: {}", topicName, e);
+                unparseable.add(new UnparseableMessage(i, e));
+            }
+        }
+        
+        try {
+            archives = dropDuplicates(archives, topicName);
+            if (!archives.isEmpty()) {
+                log.info("Bulk processing {} file locations from {} messages on topic: {}",
+                    archives.size(), parsed, topicName);
+                fileIngestionService.ingest(archives);
+                deduplicator.markIngested(archives);
+            }
+            metrics.recordProcessed(topicName, parsed);
+            return unparseable;
+        } catch (Exception e) {
+            metrics.recordFailed(topicName);
+            log.error("Error bulk processing {} VES event messages from topic: {}", messages.size(), topicName, e);
+            throw new MessageProcessingException("Failed to process VES event batch from topic: " + topicName, e);
+        }
+    }
+    
+    /**
+     * A message of a batch that could not be parsed, by its index in the batch.
+     */
+    public record UnparseableMessage(int index, JsonProcessingException cause) {
+    }
+    
+    /**
+     * @return the notification's tar locations not yet ingested, or {@code null} if the event is structurally invalid
+     */
+    private List<ArchiveRef> freshArchives(String message, String topicName) throws JsonProcessingException {
+        List<ArchiveRef> archives = extractArchives(read(message, topicName), topicName);
+        return archives == null ? null : dropDuplicates(archives, topicName);
+    }
+    
+    private MessageProcessingException failed(String topicName, Throwable cause) {
+        metrics.recordFailed(topicName);
+        log.error("Error processing VES event message from topic: {}", topicName, cause);
+        return new MessageProcessingException("Failed to process VES event message from topic: " + topicName, cause);
+    }
+    
+    private VesNotification read(String message, String topicName) throws JsonProcessingException {
+        Timer.Sample sample = metrics.start();
+        try {
+            return notificationReader.read(message);
+        } finally {
+            metrics.stop(sample, PipelineMetrics.Stage.JSON_PARSE, topicName, null);
+        }
+    }
+    
+    /**
+     * Removes archives whose notification was already ingested; redeliveries end here instead of in SFTP.
+     */
+    private List<ArchiveRef> dropDuplicates(List<ArchiveRef> archives, String topicName) {
+        Timer.Sample sample = metrics.start();
+        List<ArchiveRef> fresh = deduplicator.filterNew(archives);
+        metrics.stop(sample, PipelineMetrics.Stage.DEDUP, topicName, null);
+        if (fresh.size() < archives.size()) {
+            log.info("Dropped {} already ingested file locations from topic: {}", archives.size() - fresh.size(), topicName);
+        }
+        return fresh;
+    }
+    
+    /**
+     * @return the tar locations announced by the notification, or {@code null} if the event is structurally invalid
+     */
+    private List<ArchiveRef> extractArchives(VesNotification notification, String topicName) {
+        if (notification == null) {
+            return null;
+        }
+        
+        UUID rsyncId = UUID.randomUUID();
+        List<ArchiveRef> archives = new ArrayList<>(notification.files().size());
+        for (VesNotification.File file : notification.files()) {
+            archives.add(new ArchiveRef(file.location(), file.md5Checksum(), file.fileSize(), notification.sourceName(),
+                notification.eventId(), topicName, rsyncId));
         }
+        return archives;
     }
 
     public long getTotalMessagesProcessed() {
-        return totalMessagesProcessed.get();
+        return metrics.getMessagesProcessed();
     }
 
     public long getProcessingErrors() {
-        return processingErrors.get();
+        return metrics.getMessagesFailed();
     }
 }
\ No newline at end of file
@@ -0,0 +1,282 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drops archives of notifications that were already ingested, keyed by (eventId, location), so a
+ * redelivered or replayed notification costs a lookup instead of an SFTP listing and a rewrite.
+ * <p>
+ * A time-windowed Bloom filter answers the common "never seen" case without locking. It keeps two
+ * generations of {@code window-ms} each and rotates the older one out, so keys stay in it for at least
+ * one window. Only keys the filter may contain are confirmed against an exact LRU set bounded by
+ * {@code max-entries}; filter false positives and keys evicted from the LRU are treated as new and
+ * ingested again, which the idempotent upsert absorbs. Keys are only recorded after a successful ingest.
+ * Archives without an eventId are never deduplicated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationDeduplicator {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ingestion.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingestion.dedup.window-ms:3600000}")
+    private long windowMs;
+
+    @Value("${app.ingestion.dedup.expected-per-window:1000000}")
+    private int expectedPerWindow;
+
+    @Value("${app.ingestion.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.ingestion.dedup.max-entries:100000}")
+    private int maxEntries;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    private final ReentrantLock seenLock = new ReentrantLock();
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>(1024, 0.75f, true);
+
+    private final AtomicLong checked = new AtomicLong(0);
+    private final AtomicLong duplicates = new AtomicLong(0);
+    private final AtomicLong filterFalsePositives = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    @PostConstruct
+    public void initialize() {
+        long now = System.currentTimeMillis();
+        current = new BloomFilter(expectedPerWindow, falsePositiveRate, now);
+        previous = new BloomFilter(expectedPerWindow, falsePositiveRate, now - windowMs);
+
+        FunctionCounter.builder("pm.sync.dedup.checked", checked, AtomicLong::get)
+            .description("Archives checked against the duplicate filter")
+            .register(meterRegistry);
+        FunctionCounter.builder("pm.sync.dedup.duplicates", duplicates, AtomicLong::get)
+            .description("Archives dropped as already ingested")
+            .register(meterRegistry);
+        FunctionCounter.builder("pm.sync.dedup.filter.false.positives", filterFalsePositives, AtomicLong::get)
+            .description("Bloom filter hits that the exact set did not confirm")
+            .register(meterRegistry);
+        Gauge.builder("pm.sync.dedup.entries", this, NotificationDeduplicator::getSize)
+            .description("Keys held in the exact confirmation set")
+            .register(meterRegistry);
+
+        log.info("Notification dedup {}: window {} ms, {} expected keys per window, {} exact entries",
+            enabled ? "enabled" : "disabled", windowMs, expectedPerWindow, maxEntries);
+    }
+
+    /**
+     * @return the archives not ingested before, in their original order; a key repeated within
+     * {@code archives} is kept only once
+     */
+    public List<ArchiveRef> filterNew(List<ArchiveRef> archives) {
+        if (!enabled) {
+            return archives;
+        }
+
+        long now = System.currentTimeMillis();
+        rotateIfDue(now);
+        List<ArchiveRef> fresh = new ArrayList<>(archives.size());
+        Set<String> batchKeys = new HashSet<>();
+        for (ArchiveRef archive : archives) {
+            String key = keyOf(archive);
+            if (key == null) {
+                fresh.add(archive);
+                continue;
+            }
+            checked.incrementAndGet();
+            if (!batchKeys.add(key) || isDuplicate(key, now)) {
+                duplicates.incrementAndGet();
+                log.debug("Dropping duplicate notification {} for location: {}", archive.eventId(), archive.location());
+                continue;
+            }
+            fresh.add(archive);
+        }
+        return fresh;
+    }
+
+    /**
+     * Records successfully ingested archives so later deliveries of them are dropped.
+     */
+    public void markIngested(List<ArchiveRef> archives) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        rotateIfDue(now);
+        BloomFilter filter = current;
+        seenLock.lock();
+        try {
+            for (ArchiveRef archive : archives) {
+                String key = keyOf(archive);
+                if (key == null) {
+                    continue;
+                }
+                filter.put(key);
+                seen.put(key, now);
+            }
+            while (seen.size() > maxEntries) {
+                seen.pollFirstEntry();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            seenLock.unlock();
+        }
+    }
+
+    public long getChecked() {
+        return checked.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public long getFilterFalsePositives() {
+        return filterFalsePositives.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getSize() {
+        seenLock.lock();
+        try {
+            return seen.size();
+        } finally {
+            seenLock.unlock();
+        }
+    }
+
+    private boolean isDuplicate(String key, long now) {
+        if (!current.mightContain(key) && !previous.mightContain(key)) {
+            return false;
+        }
+        Long ingestedAt;
+        seenLock.lock();
+        try {
+            ingestedAt = seen.get(key);
+        } finally {
+            seenLock.unlock();
+        }
+        if (ingestedAt == null || now - ingestedAt > windowMs) {
+            filterFalsePositives.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - current.createdAt < windowMs) {
+            return;
+        }
+        rotationLock.lock();
+        try {
+            if (now - current.createdAt >= windowMs) {
+                previous = current;
+                current = new BloomFilter(expectedPerWindow, falsePositiveRate, now);
+            }
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    private static String keyOf(ArchiveRef archive) {
+        if (archive.eventId() == null || archive.eventId().isBlank()) {
+            return null;
+        }
+        return archive.eventId() + '\n' + archive.location();
+    }
+
+    /**
+     * Lock-free Bloom filter over a bit array sized for {@code expected} keys at the given false
+     * positive rate; probe positions come from two halves of a 64-bit hash (Kirsch-Mitzenmacher).
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final long createdAt;
+
+        BloomFilter(int expected, double falsePositiveRate, long createdAt) {
+            long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.max(1, (optimalBits + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = (long) wordCount * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+            this.createdAt = createdAt;
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                while (((value = words.get(word)) & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combined) {
+            return (combined & Integer.MAX_VALUE) % bits;
+        }
+
+        /**
+         * 64-bit FNV-1a over the UTF-8 bytes, finished with the SplitMix64 mixer so both halves are well spread.
+         */
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+    }
+}
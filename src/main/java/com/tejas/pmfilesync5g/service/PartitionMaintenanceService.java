@@ -0,0 +1,188 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.repository.PmArchiveRepository;
+import com.tejas.pmfilesync5g.repository.PmCounterRepository;
+import com.tejas.pmfilesync5g.repository.PmFileSyncPartitionRepository;
+import com.tejas.pmfilesync5g.repository.PmFileSyncPartitionRepository.Partition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the daily partitions of the DU/CU sync tables ahead of ingestion and enforces retention by
+ * dropping partitions whose whole range is older than {@code retention-days}. Archives in the normalized
+ * storage and extracted counter values are held to the same retention.
+ * <p>
+ * Runs at startup and then every {@code interval-ms}. Each table is maintained in its own transactions
+ * under an advisory lock, so replicas do not race each other, and with a lock timeout, so the DDL gives
+ * up and retries on the next run rather than stalling ingestion behind it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private final PmFileSyncPartitionRepository partitionRepository;
+    private final PmArchiveRepository archiveRepository;
+    private final PmCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.partitioning.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.partitioning.premake-days:7}")
+    private int premakeDays;
+
+    @Value("${app.partitioning.interval-ms:3600000}")
+    private long intervalMs;
+
+    @Value("${app.partitioning.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Partition maintenance disabled");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runMaintenance, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Partition maintenance every {} ms: {} days ahead, {} days retained",
+            intervalMs, premakeDays, retentionDays > 0 ? retentionDays : "all");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void runMaintenance() {
+        for (NfType nfType : NfType.values()) {
+            try {
+                createUpcomingPartitions(nfType);
+                if (retentionDays > 0) {
+                    dropExpiredPartitions(nfType);
+                }
+            } catch (Exception e) {
+                log.error("Partition maintenance failed for {}, retrying in {} ms", nfType, intervalMs, e);
+            }
+        }
+        if (retentionDays > 0) {
+            try {
+                purgeExpiredArchives();
+                purgeExpiredCounters();
+            } catch (Exception e) {
+                log.error("Purging expired archives or counters failed, retrying in {} ms", intervalMs, e);
+            }
+        }
+    }
+
+    /**
+     * Creates the missing daily partitions from today (UTC) through {@code premake-days} ahead.
+     */
+    public void createUpcomingPartitions(NfType nfType) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lock(nfType)) {
+                return;
+            }
+            List<Partition> partitions = partitionRepository.findPartitions(nfType);
+            if (partitions.isEmpty()) {
+                log.warn("{} sync table is not partitioned, skipping partition maintenance", nfType);
+                return;
+            }
+
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (int i = 0; i <= premakeDays; i++) {
+                String created = partitionRepository.createDailyPartition(nfType, today.plusDays(i), partitions);
+                if (created != null) {
+                    log.info("Created partition {}", created);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops partitions that end on or before the retention cutoff and deletes expired rows from the
+     * default partition.
+     */
+    public void dropExpiredPartitions(NfType nfType) {
+        OffsetDateTime cutoff = retentionCutoff();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lock(nfType)) {
+                return;
+            }
+            for (Partition partition : partitionRepository.findPartitions(nfType)) {
+                if (partition.isDefault()) {
+                    int purged = partitionRepository.purgeDefaultPartition(partition.name(), cutoff);
+                    if (purged > 0) {
+                        log.info("Deleted {} rows older than {} from {}", purged, cutoff, partition.name());
+                    }
+                } else if (partition.to() != null && !partition.to().isAfter(cutoff)) {
+                    partitionRepository.dropPartition(partition.name());
+                    log.info("Dropped partition {} ending {}, older than the {} day retention", partition.name(), partition.to(), retentionDays);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies the same retention to the normalized archive storage, deleting archives whose newest member
+     * is older than the cutoff; their members go with them.
+     */
+    public void purgeExpiredArchives() {
+        OffsetDateTime cutoff = retentionCutoff();
+        int purged = archiveRepository.purgeExpired(cutoff);
+        if (purged > 0) {
+            log.info("Deleted {} archives older than {}", purged, cutoff);
+        }
+    }
+
+    /**
+     * Deletes extracted counter values of intervals that started before the cutoff.
+     */
+    public void purgeExpiredCounters() {
+        OffsetDateTime cutoff = retentionCutoff();
+        int purged = counterRepository.purgeExpired(cutoff);
+        if (purged > 0) {
+            log.info("Deleted {} counter values older than {}", purged, cutoff);
+        }
+    }
+
+    private OffsetDateTime retentionCutoff() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private boolean lock(NfType nfType) {
+        partitionRepository.setLockTimeout(lockTimeoutMs);
+        if (!partitionRepository.tryLock(nfType)) {
+            log.debug("Partition maintenance for {} is running elsewhere", nfType);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.NfType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for the ingestion pipeline, exported through the actuator's
+ * Prometheus endpoint.
+ * <p>
+ * Every stage is a histogram timer {@value #STAGE_TIMER} tagged with {@code stage}, {@code topic}
+ * and {@code nf_type}, so the stage that dominates at peak load shows up per topic and per DU/CU.
+ * Stages that run before the NF type is known (JSON parse, dedup) are tagged {@code nf_type=none}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PipelineMetrics {
+
+    public enum Stage {
+        JSON_PARSE,
+        DEDUP,
+        SFTP_CONNECT,
+        TAR_LISTING,
+        FILENAME_PARSE,
+        DB_UPSERT,
+        MEASUREMENT_EXTRACTION;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    static final String STAGE_TIMER = "pm.sync.stage.duration";
+    static final String ARCHIVE_FILES = "pm.sync.archive.files";
+    static final String RECORDS_UPSERTED = "pm.sync.records.upserted";
+    static final String COUNTERS_EXTRACTED = "pm.sync.counters.extracted";
+    static final String MESSAGES_PROCESSED = "pm.sync.messages.processed";
+    static final String MESSAGES_FAILED = "pm.sync.messages.failed";
+
+    private static final String UNKNOWN = "unknown";
+    private static final String NO_NF_TYPE = "none";
+
+    private final MeterRegistry registry;
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, String topic, NfType nfType) {
+        sample.stop(Timer.builder(STAGE_TIMER)
+            .description("Time spent in one ingestion stage")
+            .tags("stage", stage.tag, "topic", topic(topic), "nf_type", nfType(nfType))
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, ArchiveRef archive) {
+        stop(sample, stage, archive.topic(), NfType.fromLocation(archive.location()));
+    }
+
+    /**
+     * Records the XML members listed from one archive; the summary's count is the number of
+     * archives and its total the number of files.
+     */
+    public void recordArchive(ArchiveRef archive, NfType nfType, int files) {
+        DistributionSummary.builder(ARCHIVE_FILES)
+            .description("XML files per PM archive")
+            .baseUnit("files")
+            .tags("topic", topic(archive.topic()), "nf_type", nfType(nfType))
+            .register(registry)
+            .record(files);
+    }
+
+    public void recordUpserted(String topic, NfType nfType, int records) {
+        Counter.builder(RECORDS_UPSERTED)
+            .description("Sync rows written to the DU/CU tables")
+            .tags("topic", topic(topic), "nf_type", nfType(nfType))
+            .register(registry)
+            .increment(records);
+    }
+
+    public void recordCountersExtracted(String topic, NfType nfType, long counters) {
+        Counter.builder(COUNTERS_EXTRACTED)
+            .description("Counter values extracted from PM XML and written to the measurement sink")
+            .tags("topic", topic(topic), "nf_type", nfType(nfType))
+            .register(registry)
+            .increment(counters);
+    }
+
+    public void recordProcessed(String topic, int messages) {
+        Counter.builder(MESSAGES_PROCESSED)
+            .description("VES notifications processed")
+            .tag("topic", topic(topic))
+            .register(registry)
+            .increment(messages);
+    }
+
+    public void recordFailed(String topic) {
+        Counter.builder(MESSAGES_FAILED)
+            .description("VES notifications that failed processing")
+            .tag("topic", topic(topic))
+            .register(registry)
+            .increment();
+    }
+
+    public long getMessagesProcessed() {
+        return total(MESSAGES_PROCESSED);
+    }
+
+    public long getMessagesFailed() {
+        return total(MESSAGES_FAILED);
+    }
+
+    /**
+     * Runs and total time of {@code stage} across all topics since startup; diff two readings for a window.
+     */
+    public StageTotal stageTotal(Stage stage) {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : registry.find(STAGE_TIMER).tag("stage", stage.tag).timers()) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        return new StageTotal(count, totalMs);
+    }
+
+    public record StageTotal(long count, double totalMs) {
+
+        /**
+         * @return mean duration of the runs since {@code earlier}, or NaN if there were none
+         */
+        public double meanMsSince(StageTotal earlier) {
+            long runs = count - earlier.count;
+            return runs > 0 ? (totalMs - earlier.totalMs) / runs : Double.NaN;
+        }
+    }
+
+    private long total(String name) {
+        return (long) registry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static String topic(String topic) {
+        return topic != null ? topic : UNKNOWN;
+    }
+
+    private static String nfType(NfType nfType) {
+        return nfType != null ? nfType.name() : NO_NF_TYPE;
+    }
+}
@@ -0,0 +1,218 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Single-pass parser for 3GPP TS 32.432 PM file names of the form
+ * {@code A<yyyyMMdd>.<HHmm><+-hhmm>-<HHmm><+-hhmm>_<nnn-nn-nnnnn>_<anything>.xml}.
+ * <p>
+ * Accepts exactly what the former regex
+ * {@code A(\d{8})\.(\d{4})([+-]\d{4})-(\d{4})([+-]\d{4})_(\d{3}-\d{2}-\d{5})_.*\.xml} matched with
+ * {@code find()}, and resolves dates like {@code DateTimeFormatter.ofPattern("yyyyMMddHHmm")} in its
+ * default SMART mode (day-of-month clamped to the month's length). Besides the result it allocates
+ * only the serial number; zone offsets come from a shared cache.
+ */
+@Slf4j
+public final class PmFileNameParser {
+
+    // Offsets of each field relative to the leading 'A'
+    private static final int DATE = 1;
+    private static final int START = 10;
+    private static final int START_OFFSET = 14;
+    private static final int END = 20;
+    private static final int END_OFFSET = 24;
+    private static final int SERIAL = 30;
+    private static final int SERIAL_LENGTH = 12;
+    private static final int PREFIX_LENGTH = 43;
+
+    private static final String XML_SUFFIX = ".xml";
+    private static final int MAX_OFFSET_MINUTES = 18 * 60;
+
+    private static final ZoneOffset[] OFFSETS = new ZoneOffset[2 * MAX_OFFSET_MINUTES + 1];
+
+    private PmFileNameParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name does not match the PM file pattern, or matches
+     *                                  but carries an invalid start date, time or offset
+     */
+    public static PmFileMetadata parse(String fileName) {
+        int length = fileName.length();
+        for (int i = fileName.indexOf('A'); i >= 0 && i + PREFIX_LENGTH + XML_SUFFIX.length() <= length;
+             i = fileName.indexOf('A', i + 1)) {
+            if (matchesPrefix(fileName, i)) {
+                int suffix = xmlSuffix(fileName, i + PREFIX_LENGTH);
+                if (suffix >= 0) {
+                    return toMetadata(fileName, i, suffix);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Filename does not match PM file pattern: " + fileName);
+    }
+
+    private static PmFileMetadata toMetadata(String fileName, int i, int suffix) {
+        OffsetDateTime time;
+        try {
+            int year = digits(fileName, i + DATE, 4);
+            int month = digits(fileName, i + DATE + 4, 2);
+            int day = digits(fileName, i + DATE + 6, 2);
+            int hour = digits(fileName, i + START, 2);
+            int minute = digits(fileName, i + START + 2, 2);
+            if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31 || !isTimeOfDay(hour, minute)) {
+                throw new DateTimeException("Invalid date/time in " + fileName);
+            }
+            LocalDate date = LocalDate.of(year, month, Math.min(day, lengthOfMonth(year, month)));
+            if (hour == 24) {
+                // SMART resolution reads 24:00 as midnight at the end of the day
+                date = date.plusDays(1);
+                hour = 0;
+            }
+            time = OffsetDateTime.of(date, LocalTime.of(hour, minute), offset(fileName, i + START_OFFSET));
+        } catch (DateTimeException e) {
+            log.warn("Failed to parse metadata from filename: {}, error: {}", fileName, e.getMessage());
+            throw new IllegalArgumentException("Invalid PM file format: " + fileName, e);
+        }
+        
+        String serialNumber = fileName.substring(i + SERIAL, i + SERIAL + SERIAL_LENGTH);
+        return new PmFileMetadata(time, endTime(fileName, i, time), serialNumber, nfType(fileName, i + PREFIX_LENGTH, suffix));
+    }
+
+    /**
+     * The end of the interval carries no date; it is on the start date unless that would not be
+     * after the start, in which case the interval crosses midnight.
+     */
+    private static OffsetDateTime endTime(String fileName, int i, OffsetDateTime start) {
+        int hour = digits(fileName, i + END, 2);
+        int minute = digits(fileName, i + END + 2, 2);
+        if (!isTimeOfDay(hour, minute)) {
+            return null;
+        }
+        if (hour == 24) {
+            hour = 0;
+        }
+        ZoneOffset endOffset;
+        try {
+            endOffset = offset(fileName, i + END_OFFSET);
+        } catch (DateTimeException e) {
+            return null;
+        }
+        
+        LocalDate date = start.toLocalDate();
+        long startSeconds = start.toEpochSecond();
+        long endSeconds = date.toEpochDay() * 86_400 + hour * 3600L + minute * 60L - endOffset.getTotalSeconds();
+        if (endSeconds <= startSeconds) {
+            date = date.plusDays(1);
+        }
+        return OffsetDateTime.of(date, LocalTime.of(hour, minute), endOffset);
+    }
+
+    private static boolean matchesPrefix(String s, int i) {
+        return isDigits(s, i + DATE, 8)
+            && s.charAt(i + START - 1) == '.'
+            && isDigits(s, i + START, 4)
+            && isSign(s.charAt(i + START_OFFSET)) && isDigits(s, i + START_OFFSET + 1, 4)
+            && s.charAt(i + END - 1) == '-'
+            && isDigits(s, i + END, 4)
+            && isSign(s.charAt(i + END_OFFSET)) && isDigits(s, i + END_OFFSET + 1, 4)
+            && s.charAt(i + SERIAL - 1) == '_'
+            && isDigits(s, i + SERIAL, 3) && s.charAt(i + SERIAL + 3) == '-'
+            && isDigits(s, i + SERIAL + 4, 2) && s.charAt(i + SERIAL + 6) == '-'
+            && isDigits(s, i + SERIAL + 7, 5)
+            && s.charAt(i + PREFIX_LENGTH - 1) == '_';
+    }
+
+    /**
+     * Mirrors the greedy {@code .*\.xml} tail: the last ".xml" before the next line terminator.
+     *
+     * @return index of that ".xml", or -1 if there is none
+     */
+    private static int xmlSuffix(String s, int from) {
+        int lineEnd = from;
+        while (lineEnd < s.length() && !isLineTerminator(s.charAt(lineEnd))) {
+            lineEnd++;
+        }
+        int suffix = s.lastIndexOf(XML_SUFFIX, lineEnd - XML_SUFFIX.length());
+        return suffix >= from ? suffix : -1;
+    }
+
+    private static NfType nfType(String s, int tailStart, int suffix) {
+        int tokenStart = s.lastIndexOf('_', suffix - 1) + 1;
+        if (tokenStart < tailStart) {
+            tokenStart = tailStart;
+        }
+        if (suffix - tokenStart != 2) {
+            return null;
+        }
+        if (s.regionMatches(true, tokenStart, "DU", 0, 2)) {
+            return NfType.DU;
+        }
+        if (s.regionMatches(true, tokenStart, "CU", 0, 2)) {
+            return NfType.CU;
+        }
+        return null;
+    }
+
+    private static ZoneOffset offset(String s, int at) {
+        int hours = digits(s, at + 1, 2);
+        int minutes = digits(s, at + 3, 2);
+        // Same bounds as ZoneOffset.of("+hh:mm")
+        if (hours > 18 || minutes > 59 || (hours == 18 && minutes > 0)) {
+            throw new DateTimeException("Zone offset not in valid range: " + s.substring(at, at + 5));
+        }
+        int totalMinutes = (s.charAt(at) == '-' ? -1 : 1) * (hours * 60 + minutes);
+        int index = totalMinutes + MAX_OFFSET_MINUTES;
+        ZoneOffset offset = OFFSETS[index];
+        if (offset == null) {
+            offset = ZoneOffset.ofTotalSeconds(totalMinutes * 60);
+            OFFSETS[index] = offset;
+        }
+        return offset;
+    }
+
+    private static boolean isTimeOfDay(int hour, int minute) {
+        return (hour <= 23 && minute <= 59) || (hour == 24 && minute == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigits(String s, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSign(char c) {
+        return c == '+' || c == '-';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
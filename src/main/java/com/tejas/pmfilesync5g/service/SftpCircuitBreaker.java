@@ -0,0 +1,308 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.tejas.pmfilesync5g.config.TopicConfiguration;
+import com.tejas.pmfilesync5g.dto.SftpLocation;
+import com.tejas.pmfilesync5g.exception.SftpHostUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Circuit breaker per SFTP host, configured by {@code error-handling.circuit-breaker}.
+ * <p>
+ * {@code failure-threshold} consecutive connection failures open the breaker; while open, work for
+ * the host fails fast with {@link SftpHostUnavailableException}. Once {@code timeout} ms have passed
+ * the breaker goes half-open and actively probes the host with a fresh SFTP channel, since the
+ * consumers feeding it are paused. A successful probe closes the breaker; a failed one reopens it
+ * for another {@code timeout}. Listeners are told about every state change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SftpCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final TopicConfiguration topicConfiguration;
+    private final SftpSessionPool sessionPool;
+    private final SftpTransferScheduler transferScheduler;
+
+    @Value("${app.sftp.timeout:30000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.sftp.circuit-breaker.probe-interval-ms:1000}")
+    private long probeIntervalMs;
+
+    private final Map<String, HostBreaker> breakers = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, State>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private ScheduledExecutorService prober;
+
+    @PostConstruct
+    public void start() {
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sftp-breaker-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probeDueHosts, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    /**
+     * @throws SftpHostUnavailableException if the host's breaker is not closed
+     */
+    public void checkAvailable(SftpLocation location) {
+        if (!config().isEnabled()) {
+            return;
+        }
+        HostBreaker breaker = breakers.get(hostKey(location));
+        if (breaker != null) {
+            breaker.lock.lock();
+            try {
+                if (breaker.state != State.CLOSED) {
+                    rejected.incrementAndGet();
+                    throw new SftpHostUnavailableException(breaker.host, breaker.retryAt);
+                }
+            } finally {
+                breaker.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return whether work for the host ({@code host:port}) is currently rejected
+     */
+    public boolean isOpen(String host) {
+        HostBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            return false;
+        }
+        breaker.lock.lock();
+        try {
+            return breaker.state != State.CLOSED;
+        } finally {
+            breaker.lock.unlock();
+        }
+    }
+
+    public void recordSuccess(SftpLocation location) {
+        HostBreaker breaker = breakers.get(hostKey(location));
+        if (breaker != null) {
+            breaker.lock.lock();
+            try {
+                breaker.consecutiveFailures = 0;
+            } finally {
+                breaker.lock.unlock();
+            }
+        }
+    }
+
+    public void recordFailure(SftpLocation location, Exception cause) {
+        TopicConfiguration.CircuitBreaker config = config();
+        if (!config.isEnabled()) {
+            return;
+        }
+        
+        String host = hostKey(location);
+        HostBreaker breaker = breakers.computeIfAbsent(host, HostBreaker::new);
+        boolean opened;
+        breaker.lock.lock();
+        try {
+            breaker.probeLocation = location;
+            breaker.consecutiveFailures++;
+            opened = breaker.state == State.CLOSED && breaker.consecutiveFailures >= config.getFailureThreshold();
+            if (opened) {
+                open(breaker, config);
+            }
+        } finally {
+            breaker.lock.unlock();
+        }
+        
+        if (opened) {
+            trips.incrementAndGet();
+            log.warn("Circuit breaker opened for SFTP host {} after {} consecutive failures, probing again in {} ms: {}",
+                host, config.getFailureThreshold(), config.getTimeout(), cause.getMessage());
+            notifyListeners(host, State.OPEN);
+        }
+    }
+
+    /**
+     * Registers a callback for breaker state changes, called with the host key ({@code host:port}).
+     */
+    public void addListener(BiConsumer<String, State> listener) {
+        listeners.add(listener);
+    }
+
+    void probeDueHosts() {
+        long now = System.currentTimeMillis();
+        for (HostBreaker breaker : breakers.values()) {
+            breaker.lock.lock();
+            try {
+                if (breaker.state != State.OPEN || now < breaker.retryAt) {
+                    continue;
+                }
+                breaker.state = State.HALF_OPEN;
+            } finally {
+                breaker.lock.unlock();
+            }
+            log.info("Circuit breaker half-open for SFTP host {}, probing", breaker.host);
+            notifyListeners(breaker.host, State.HALF_OPEN);
+            Thread.ofVirtual().name("sftp-probe-" + breaker.host).start(() -> probe(breaker));
+        }
+    }
+
+    private void probe(HostBreaker breaker) {
+        SftpTransferScheduler.Permit permit = null;
+        SftpSessionPool.Lease lease = null;
+        try {
+            permit = transferScheduler.acquire(breaker.host);
+            lease = sessionPool.borrow(breaker.probeLocation);
+            ChannelSftp channel = (ChannelSftp) lease.session().openChannel("sftp");
+            try {
+                channel.connect(connectTimeoutMs);
+            } finally {
+                channel.disconnect();
+            }
+            
+            breaker.lock.lock();
+            try {
+                breaker.state = State.CLOSED;
+                breaker.consecutiveFailures = 0;
+            } finally {
+                breaker.lock.unlock();
+            }
+            log.info("Circuit breaker closed for SFTP host {}, probe succeeded", breaker.host);
+            notifyListeners(breaker.host, State.CLOSED);
+        } catch (Exception e) {
+            if (lease != null) {
+                lease.invalidate();
+            }
+            breaker.lock.lock();
+            try {
+                open(breaker, config());
+            } finally {
+                breaker.lock.unlock();
+            }
+            log.warn("Circuit breaker probe failed for SFTP host {}, staying open: {}", breaker.host, e.getMessage());
+            notifyListeners(breaker.host, State.OPEN);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    private static void open(HostBreaker breaker, TopicConfiguration.CircuitBreaker config) {
+        breaker.state = State.OPEN;
+        breaker.openedAt = System.currentTimeMillis();
+        breaker.retryAt = breaker.openedAt + config.getTimeout();
+    }
+
+    private void notifyListeners(String host, State state) {
+        for (BiConsumer<String, State> listener : listeners) {
+            try {
+                listener.accept(host, state);
+            } catch (Exception e) {
+                log.error("Circuit breaker listener failed for SFTP host {} ({})", host, state, e);
+            }
+        }
+    }
+
+    private TopicConfiguration.CircuitBreaker config() {
+        TopicConfiguration.ErrorHandling errorHandling = topicConfiguration.getErrorHandling();
+        return errorHandling != null && errorHandling.getCircuitBreaker() != null
+            ? errorHandling.getCircuitBreaker() : new TopicConfiguration.CircuitBreaker();
+    }
+
+    static String hostKey(SftpLocation location) {
+        return location.host() + ":" + location.port();
+    }
+
+    /**
+     * State of every host that has failed at least once, keyed by {@code host:port}.
+     */
+    public Map<String, Map<String, Object>> getStates() {
+        Map<String, Map<String, Object>> states = new TreeMap<>();
+        for (HostBreaker breaker : breakers.values()) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            breaker.lock.lock();
+            try {
+                state.put("state", breaker.state);
+                state.put("consecutiveFailures", breaker.consecutiveFailures);
+                if (breaker.state != State.CLOSED) {
+                    state.put("openedAt", breaker.openedAt);
+                    state.put("retryAt", breaker.retryAt);
+                }
+            } finally {
+                breaker.lock.unlock();
+            }
+            states.put(breaker.host, state);
+        }
+        return states;
+    }
+
+    public long getOpenHosts() {
+        return breakers.values().stream().filter(breaker -> {
+            breaker.lock.lock();
+            try {
+                return breaker.state != State.CLOSED;
+            } finally {
+                breaker.lock.unlock();
+            }
+        }).count();
+    }
+
+    public long getTrips() {
+        return trips.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private static final class HostBreaker {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String host;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private long retryAt;
+        private SftpLocation probeLocation;
+
+        private HostBreaker(String host) {
+            this.host = host;
+        }
+    }
+}
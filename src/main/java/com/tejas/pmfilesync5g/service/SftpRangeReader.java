@@ -0,0 +1,48 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a remote file over SFTP, opening a read at the requested offset for each window.
+ */
+class SftpRangeReader extends WindowedRangeReader {
+
+    // JSch issues read requests of roughly this size; the window is fetched with just enough of them
+    private static final int SFTP_READ_REQUEST_SIZE = 32 * 1024;
+
+    private final ChannelSftp channel;
+    private final String path;
+    private final SftpTransferScheduler.Permit permit;
+
+    SftpRangeReader(ChannelSftp channel, String path, int windowSize, SftpTransferScheduler.Permit permit) throws JSchException {
+        super(windowSize);
+        this.channel = channel;
+        this.path = path;
+        this.permit = permit;
+        // Stop JSch from pipelining reads far beyond the window we actually consume
+        channel.setBulkRequests(Math.max(1, windowSize / SFTP_READ_REQUEST_SIZE));
+    }
+
+    @Override
+    protected int fetch(long position, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        try (InputStream in = channel.get(path, null, position)) {
+            while (total < length) {
+                int n = in.read(buffer, total, length - total);
+                if (n < 0) {
+                    break;
+                }
+                total += n;
+            }
+        } catch (SftpException e) {
+            throw new IOException("Failed to read " + path + " at offset " + position, e);
+        }
+        permit.account(total);
+        return total;
+    }
+}
@@ -1,73 +1,159 @@
 package com.tejas.pmfilesync5g.service;
 
 import com.jcraft.jsch.*;
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.SftpLocation;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class SftpService {
 
-    private static final Pattern SFTP_PATTERN = Pattern.compile("sftp://([^:]+):([^@]+)@([^:]+):(\\d+)(.+)");
+    static final String LISTING_MODE_SFTP = "sftp";
+    static final String LISTING_MODE_EXEC = "exec";
+
+    // Read buffer for streamed archives; JSch itself keeps a few read requests in flight
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private final SftpSessionPool sessionPool;
+    private final SftpCircuitBreaker circuitBreaker;
+    private final SftpTransferScheduler transferScheduler;
+    private final PipelineMetrics metrics;
+
+    // sftp: walk tar headers over ChannelSftp; exec: run tar -tf on the EMS (needs shell access)
+    @Value("${app.sftp.listing-mode:sftp}")
+    private String listingMode;
+
+    @Value("${app.sftp.header-window-bytes:32768}")
+    private int headerWindowBytes;
+    
+    public List<String> readTarFileContents(ArchiveRef archive) throws Exception {
+        return withSession(archive, (session, filePath, permit) -> {
+            List<String> fileList = LISTING_MODE_EXEC.equalsIgnoreCase(listingMode)
+                ? listWithTarCommand(session, filePath)
+                : listWithHeaderWalk(session, filePath, permit);
+            log.info("Found {} XML files in tar archive: {}", fileList.size(), filePath);
+            return fileList;
+        });
+    }
     
-    public List<String> readTarFileContents(String sftpLocation) throws Exception {
-        URI uri = URI.create(sftpLocation);
+    /**
+     * Downloads the archive once, front to back, handing each member and its content to {@code visitor}
+     * as it passes; nothing is buffered beyond the transfer window. Archives named {@code .gz} or
+     * {@code .tgz} are decompressed on the fly.
+     */
+    public void streamTarFile(ArchiveRef archive, TarStreamReader.EntryVisitor visitor) throws Exception {
+        withSession(archive, (session, filePath, permit) -> {
+            ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+            try {
+                channel.connect();
+                try (InputStream in = new BufferedInputStream(permit.meter(channel.get(filePath)), STREAM_BUFFER_BYTES)) {
+                    String lower = filePath.toLowerCase(Locale.ROOT);
+                    boolean gzip = lower.endsWith(".gz") || lower.endsWith(".tgz");
+                    TarStreamReader.walk(gzip ? new GZIPInputStream(in, STREAM_BUFFER_BYTES) : in, visitor);
+                }
+            } finally {
+                channel.disconnect();
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Runs {@code work} on a pooled session to the archive's host once the transfer scheduler admits it,
+     * keeping the circuit breaker informed.
+     */
+    private <T> T withSession(ArchiveRef archive, SessionWork<T> work) throws Exception {
+        SftpLocation location = SftpLocation.parse(archive.location());
+        String filePath = location.path();
         
-        String username = null;
-        String password = null;
-        String host = uri.getHost();
-        int port = uri.getPort();
-        String filePath = uri.getPath();
+        log.info("Connecting to SFTP server: {}:{} for file: {}", location.host(), location.port(), filePath);
         
-        String userInfo = uri.getUserInfo();
-        if (userInfo != null && userInfo.contains(":")) {
-            String[] credentials = userInfo.split(":");
-            username = credentials[0];
-            password = credentials[1];
+        circuitBreaker.checkAvailable(location);
+        SftpTransferScheduler.Permit permit;
+        SftpSessionPool.Lease lease;
+        Timer.Sample sample = metrics.start();
+        try {
+            permit = transferScheduler.acquire(SftpCircuitBreaker.hostKey(location));
+            try {
+                lease = sessionPool.borrow(location);
+            } catch (Exception e) {
+                permit.close();
+                throw e;
+            }
+        } catch (SftpSessionPool.WaitTimeoutException e) {
+            throw e;
+        } catch (JSchException e) {
+            circuitBreaker.recordFailure(location, e);
+            throw e;
+        } finally {
+            // Scheduler and pool wait plus handshake on a miss, i.e. what the pipeline actually waits for
+            metrics.stop(sample, PipelineMetrics.Stage.SFTP_CONNECT, archive);
         }
         
-        if (port == -1) {
-            port = 22;
+        try {
+            T result = work.run(lease.session(), filePath, permit);
+            circuitBreaker.recordSuccess(location);
+            return result;
+        } catch (Exception e) {
+            // A session that is still up means the file or archive was at fault, not the host
+            if (!lease.session().isConnected()) {
+                circuitBreaker.recordFailure(location, e);
+            }
+            log.error("Error reading tar file from SFTP: {}", location, e);
+            throw e;
+        } finally {
+            // Returns the session to the pool; broken sessions are dropped there
+            lease.close();
+            permit.close();
         }
+    }
+    
+    @FunctionalInterface
+    private interface SessionWork<T> {
+        T run(Session session, String filePath, SftpTransferScheduler.Permit permit) throws Exception;
+    }
+    
+    private List<String> listWithHeaderWalk(Session session, String filePath, SftpTransferScheduler.Permit permit) throws Exception {
+        ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+        List<String> fileList = new ArrayList<>();
         
-        log.info("Connecting to SFTP server: {}:{} for file: {}", host, port, filePath);
+        try {
+            channel.connect();
+            SftpRangeReader reader = new SftpRangeReader(channel, filePath, headerWindowBytes, permit);
+            TarHeaderWalker.walk(reader, entry -> {
+                log.debug("Tar content: {}", entry.name());
+                if (entry.name().trim().endsWith(".xml")) {
+                    fileList.add(entry.name().trim());
+                }
+            });
+            log.debug("Listed {} with {} SFTP reads ({} bytes)", filePath, reader.getFetches(), reader.getBytesFetched());
+        } finally {
+            channel.disconnect();
+        }
         
-        JSch jsch = new JSch();
-        Session session = null;
-        ChannelExec channel = null;
+        return fileList;
+    }
+    
+    private List<String> listWithTarCommand(Session session, String filePath) throws Exception {
+        ChannelExec channel = (ChannelExec) session.openChannel("exec");
         List<String> fileList = new ArrayList<>();
         
         try {
-            session = jsch.getSession(username, host, port);
-            session.setPassword(password);
-            session.setConfig("StrictHostKeyChecking", "no");
-            
-            // Configure algorithms for compatibility with modern SFTP servers
-            session.setConfig("kex", "diffie-hellman-group14-sha256,diffie-hellman-group14-sha1,diffie-hellman-group1-sha1");
-            session.setConfig("server_host_key", "ssh-rsa,ssh-dss,ecdsa-sha2-nistp256,ecdsa-sha2-nistp384,ecdsa-sha2-nistp521");
-            session.setConfig("cipher.s2c", "aes128-ctr,aes128-cbc,3des-ctr,3des-cbc,blowfish-cbc,aes192-cbc,aes256-cbc");
-            session.setConfig("cipher.c2s", "aes128-ctr,aes128-cbc,3des-ctr,3des-cbc,blowfish-cbc,aes192-cbc,aes256-cbc");
-            session.setConfig("mac.s2c", "hmac-md5,hmac-sha1,hmac-sha2-256,hmac-sha1-96,hmac-md5-96");
-            session.setConfig("mac.c2s", "hmac-md5,hmac-sha1,hmac-sha2-256,hmac-sha1-96,hmac-md5-96");
-            session.setConfig("compression.s2c", "none");
-            session.setConfig("compression.c2s", "none");
-            
-            session.setTimeout(30000);
-            session.connect();
-            
-            log.info("Session connected to {}:{}", host, port);
-            
-            channel = (ChannelExec) session.openChannel("exec");
             String command = "tar -tf " + filePath;
             log.info("Executing command: {}", command);
             channel.setCommand(command);
@@ -91,22 +177,10 @@ public class SftpService {
             while ((errLine = errReader.readLine()) != null) {
                 log.warn("SFTP command error: {}", errLine);
             }
-            
-            channel.disconnect();
-            log.info("Found {} XML files in tar archive: {}", fileList.size(), filePath);
-            
-        } catch (Exception e) {
-            log.error("Error reading tar file contents from SFTP: {}", sftpLocation, e);
-            throw e;
         } finally {
-            if (channel != null) {
-                channel.disconnect();
-            }
-            if (session != null) {
-                session.disconnect();
-            }
+            channel.disconnect();
         }
         
         return fileList;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,388 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.tejas.pmfilesync5g.dto.SftpLocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of connected JSch sessions keyed by host, port and user.
+ * <p>
+ * A session is shared by up to {@code max-channels-per-session} concurrent leases, each of which opens
+ * its own exec/sftp channel; at most {@code max-sessions-per-host} sessions are kept per key and callers
+ * wait up to {@code max-wait-ms} for capacity. Sessions idle longer than {@code validate-after-idle-ms}
+ * are probed before reuse, and sessions idle longer than {@code idle-timeout-ms} are evicted.
+ */
+@Slf4j
+@Component
+public class SftpSessionPool {
+
+    @Value("${app.sftp.timeout:30000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.sftp.pool.max-sessions-per-host:4}")
+    private int maxSessionsPerHost;
+
+    @Value("${app.sftp.pool.max-channels-per-session:8}")
+    private int maxChannelsPerSession;
+
+    @Value("${app.sftp.pool.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    @Value("${app.sftp.pool.keep-alive-interval-ms:15000}")
+    private int keepAliveIntervalMs;
+
+    @Value("${app.sftp.pool.validate-after-idle-ms:5000}")
+    private long validateAfterIdleMs;
+
+    @Value("${app.sftp.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.sftp.pool.eviction-interval-ms:60000}")
+    private long evictionIntervalMs;
+
+    private final Map<PoolKey, HostPool> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong waitTimeNanos = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    private ScheduledExecutorService evictor;
+
+    @PostConstruct
+    public void start() {
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sftp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdleSessions, evictionIntervalMs, evictionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        pools.values().forEach(HostPool::disconnectAll);
+        pools.clear();
+    }
+
+    /**
+     * Leases a connected session for the location's host, reusing a pooled one when possible.
+     * The lease must be closed once the caller's channel is disconnected.
+     */
+    public Lease borrow(SftpLocation location) throws JSchException, InterruptedException {
+        PoolKey key = new PoolKey(location.host(), location.port(), location.username(), location.password());
+        HostPool pool = pools.computeIfAbsent(key, HostPool::new);
+        
+        while (true) {
+            Lease lease = pool.acquire();
+            if (lease.pooled.needsValidation(validateAfterIdleMs) && !lease.pooled.validate()) {
+                log.debug("Discarding stale SFTP session to {}:{}", key.host, key.port);
+                lease.invalidate();
+                lease.close();
+                continue;
+            }
+            return lease;
+        }
+    }
+
+    void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        pools.values().forEach(pool -> pool.evictIdle(now));
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getWaitTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.get());
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getOpenSessions() {
+        return pools.values().stream().mapToInt(HostPool::openSessions).sum();
+    }
+
+    public int getActiveLeases() {
+        return pools.values().stream().mapToInt(HostPool::activeLeases).sum();
+    }
+
+    private Session connect(PoolKey key) throws JSchException {
+        JSch jsch = new JSch();
+        Session session = jsch.getSession(key.username, key.host, key.port);
+        session.setPassword(key.password);
+        session.setConfig("StrictHostKeyChecking", "no");
+        
+        // Configure algorithms for compatibility with modern SFTP servers
+        session.setConfig("kex", "diffie-hellman-group14-sha256,diffie-hellman-group14-sha1,diffie-hellman-group1-sha1");
+        session.setConfig("server_host_key", "ssh-rsa,ssh-dss,ecdsa-sha2-nistp256,ecdsa-sha2-nistp384,ecdsa-sha2-nistp521");
+        session.setConfig("cipher.s2c", "aes128-ctr,aes128-cbc,3des-ctr,3des-cbc,blowfish-cbc,aes192-cbc,aes256-cbc");
+        session.setConfig("cipher.c2s", "aes128-ctr,aes128-cbc,3des-ctr,3des-cbc,blowfish-cbc,aes192-cbc,aes256-cbc");
+        session.setConfig("mac.s2c", "hmac-md5,hmac-sha1,hmac-sha2-256,hmac-sha1-96,hmac-md5-96");
+        session.setConfig("mac.c2s", "hmac-md5,hmac-sha1,hmac-sha2-256,hmac-sha1-96,hmac-md5-96");
+        session.setConfig("compression.s2c", "none");
+        session.setConfig("compression.c2s", "none");
+        
+        // Keep pooled sessions alive through idle NAT/firewall timeouts
+        session.setServerAliveInterval(keepAliveIntervalMs);
+        session.setServerAliveCountMax(3);
+        session.connect(connectTimeoutMs);
+        
+        log.info("Session connected to {}:{}", key.host, key.port);
+        return session;
+    }
+
+    /**
+     * Thrown when no session to a host became available within {@code max-wait-ms}. The pool was
+     * saturated; the host itself did not fail.
+     */
+    public static class WaitTimeoutException extends JSchException {
+
+        WaitTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A session borrowed for the lifetime of one channel.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final HostPool pool;
+        private final PooledSession pooled;
+        private boolean closed;
+
+        private Lease(HostPool pool, PooledSession pooled) {
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        public Session session() {
+            return pooled.session;
+        }
+
+        /**
+         * Marks the session as broken so it is disconnected instead of returned to the pool.
+         */
+        public void invalidate() {
+            pooled.broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pool.release(pooled);
+            }
+        }
+    }
+
+    private static final class PooledSession {
+        private final Session session;
+        private int leases;
+        private volatile long lastUsedMs = System.currentTimeMillis();
+        private volatile boolean broken;
+
+        private PooledSession(Session session) {
+            this.session = session;
+        }
+
+        private boolean usable() {
+            return !broken && session.isConnected();
+        }
+
+        private boolean needsValidation(long validateAfterIdleMs) {
+            return System.currentTimeMillis() - lastUsedMs > validateAfterIdleMs;
+        }
+
+        private boolean validate() {
+            try {
+                session.sendKeepAliveMsg();
+                return session.isConnected();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+
+    private final class HostPool {
+
+        private final PoolKey key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final List<PooledSession> sessions = new ArrayList<>();
+        private int connecting;
+
+        private HostPool(PoolKey key) {
+            this.key = key;
+        }
+
+        private Lease acquire() throws JSchException, InterruptedException {
+            long startNanos = System.nanoTime();
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            
+            lock.lock();
+            try {
+                while (true) {
+                    PooledSession best = null;
+                    Iterator<PooledSession> it = sessions.iterator();
+                    while (it.hasNext()) {
+                        PooledSession candidate = it.next();
+                        if (!candidate.usable()) {
+                            if (candidate.leases == 0) {
+                                it.remove();
+                                candidate.session.disconnect();
+                            }
+                            continue;
+                        }
+                        if (candidate.leases < maxChannelsPerSession
+                            && (best == null || candidate.leases < best.leases)) {
+                            best = candidate;
+                        }
+                    }
+                    
+                    if (best != null) {
+                        best.leases++;
+                        hits.incrementAndGet();
+                        return new Lease(this, best);
+                    }
+                    if (sessions.size() + connecting < maxSessionsPerHost) {
+                        connecting++;
+                        break;
+                    }
+                    if (remainingNanos <= 0) {
+                        throw new WaitTimeoutException("Timed out after " + maxWaitMs + "ms waiting for an SFTP session to "
+                            + key.host + ":" + key.port);
+                    }
+                    remainingNanos = available.awaitNanos(remainingNanos);
+                }
+            } finally {
+                lock.unlock();
+                waitTimeNanos.addAndGet(System.nanoTime() - startNanos);
+            }
+            
+            // Connect outside the lock so a slow handshake does not block reuse of existing sessions
+            misses.incrementAndGet();
+            Session session;
+            try {
+                session = connect(key);
+            } catch (JSchException | RuntimeException e) {
+                lock.lock();
+                try {
+                    connecting--;
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+            
+            lock.lock();
+            try {
+                connecting--;
+                PooledSession pooled = new PooledSession(session);
+                pooled.leases = 1;
+                sessions.add(pooled);
+                return new Lease(this, pooled);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(PooledSession pooled) {
+            lock.lock();
+            try {
+                pooled.leases--;
+                pooled.lastUsedMs = System.currentTimeMillis();
+                if (!pooled.usable() && pooled.leases == 0) {
+                    sessions.remove(pooled);
+                    pooled.session.disconnect();
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void evictIdle(long now) {
+            lock.lock();
+            try {
+                Iterator<PooledSession> it = sessions.iterator();
+                while (it.hasNext()) {
+                    PooledSession pooled = it.next();
+                    if (pooled.leases == 0 && (!pooled.usable() || now - pooled.lastUsedMs > idleTimeoutMs)) {
+                        it.remove();
+                        pooled.session.disconnect();
+                        evictions.incrementAndGet();
+                        log.debug("Evicted idle SFTP session to {}:{}", key.host, key.port);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void disconnectAll() {
+            lock.lock();
+            try {
+                sessions.forEach(pooled -> pooled.session.disconnect());
+                sessions.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int openSessions() {
+            lock.lock();
+            try {
+                return sessions.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int activeLeases() {
+            lock.lock();
+            try {
+                return sessions.stream().mapToInt(pooled -> pooled.leases).sum();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record PoolKey(String host, int port, String username, String password) {
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.tejas.pmfilesync5g.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for SFTP operations: every listing, download and probe holds a {@link Permit} for
+ * its host while it runs.
+ * <p>
+ * At most {@code max-per-host} operations run against one host and {@code max-concurrent} in total.
+ * When a slot frees up, hosts with waiting operations are served round-robin, so a host with a deep
+ * backlog cannot starve the others. With {@code bytes-per-second} set, each host's transfers share a
+ * token bucket of that rate, allowing a one-second burst.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SftpTransferScheduler {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.sftp.scheduler.max-concurrent:32}")
+    private int maxConcurrent;
+
+    @Value("${app.sftp.scheduler.max-per-host:4}")
+    private int maxPerHost;
+
+    @Value("${app.sftp.scheduler.bytes-per-second:0}")
+    private long bytesPerSecond;
+
+    @Value("${app.sftp.scheduler.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    // Hosts with waiting operations, in the order they are next served
+    private final Deque<HostQueue> ready = new ArrayDeque<>();
+    private int active;
+
+    /**
+     * Waits for a slot on {@code host}, up to {@code max-wait-ms}.
+     *
+     * @throws SftpSessionPool.WaitTimeoutException if no slot became free in time; the scheduler was
+     *                                              saturated, the host itself did not fail
+     */
+    public Permit acquire(String host) throws SftpSessionPool.WaitTimeoutException, InterruptedException {
+        long start = System.nanoTime();
+        HostQueue queue;
+        Waiter waiter;
+        lock.lock();
+        try {
+            queue = hosts.computeIfAbsent(host, HostQueue::new);
+            waiter = new Waiter(lock.newCondition());
+            queue.waiters.addLast(waiter);
+            if (queue.waiters.size() == 1) {
+                ready.addLast(queue);
+            }
+            dispatch();
+
+            long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        queue.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        throw new SftpSessionPool.WaitTimeoutException("Timed out after " + maxWaitMs
+                            + "ms waiting for an SFTP transfer slot to " + host);
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Granted while being interrupted; hand the slot on
+                    release(queue);
+                } else {
+                    queue.remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        queue.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(queue);
+    }
+
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return hosts.values().stream().mapToInt(queue -> queue.waiters.size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants free slots to waiting operations, one host at a time in round-robin order. Must hold the lock.
+     */
+    private void dispatch() {
+        int skipped = 0;
+        while (active < maxConcurrent && skipped < ready.size()) {
+            HostQueue queue = ready.pollFirst();
+            if (queue.active >= maxPerHost) {
+                // Host is at its limit; keep its turn order and look at the next one
+                ready.addLast(queue);
+                skipped++;
+                continue;
+            }
+            Waiter waiter = queue.waiters.pollFirst();
+            waiter.granted = true;
+            waiter.condition.signal();
+            queue.active++;
+            active++;
+            if (!queue.waiters.isEmpty()) {
+                ready.addLast(queue);
+            }
+            skipped = 0;
+        }
+    }
+
+    private void release(HostQueue queue) {
+        lock.lock();
+        try {
+            queue.active--;
+            active--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A running operation's slot on its host; closing it lets the next waiting operation start.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final HostQueue queue;
+        private boolean closed;
+
+        private Permit(HostQueue queue) {
+            this.queue = queue;
+        }
+
+        /**
+         * Accounts for {@code bytes} transferred, sleeping as long as the host's bandwidth cap requires.
+         */
+        public void transferred(long bytes) throws InterruptedException {
+            if (bytes <= 0) {
+                return;
+            }
+            queue.transferredBytes.increment(bytes);
+            if (bytesPerSecond > 0) {
+                long waitNanos = queue.reserve(bytes);
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            }
+        }
+
+        /**
+         * Wraps a stream read from the host so its reads are counted and held to the bandwidth cap.
+         */
+        public InputStream meter(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        account(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    account(n);
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long skipped = super.skip(n);
+                    account(skipped);
+                    return skipped;
+                }
+            };
+        }
+
+        /**
+         * {@link #transferred} for I/O paths, where an interrupt surfaces as an {@link InterruptedIOException}.
+         */
+        public void account(long bytes) throws InterruptedIOException {
+            try {
+                transferred(bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling an SFTP transfer");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(queue);
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+        private boolean granted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    private final class HostQueue {
+
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private final Timer waitTimer;
+        private final Counter transferredBytes;
+        private int active;
+
+        // Token bucket; may go negative, which is the debt later transfers wait off
+        private final ReentrantLock bucketLock = new ReentrantLock();
+        private double tokens = bytesPerSecond;
+        private long refilledAt = System.nanoTime();
+
+        HostQueue(String host) {
+            waitTimer = Timer.builder("pm.sync.sftp.scheduler.wait")
+                .description("Time SFTP operations waited for a transfer slot")
+                .tag("host", host)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            transferredBytes = Counter.builder("pm.sync.sftp.transferred.bytes")
+                .description("Bytes read from SFTP hosts")
+                .baseUnit("bytes")
+                .tag("host", host)
+                .register(meterRegistry);
+            Gauge.builder("pm.sync.sftp.scheduler.queued", this, queue -> queue.size(false))
+                .description("SFTP operations waiting for a transfer slot")
+                .tag("host", host)
+                .register(meterRegistry);
+            Gauge.builder("pm.sync.sftp.scheduler.active", this, queue -> queue.size(true))
+                .description("SFTP operations holding a transfer slot")
+                .tag("host", host)
+                .register(meterRegistry);
+        }
+
+        private int size(boolean running) {
+            lock.lock();
+            try {
+                return running ? active : waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Waiter waiter) {
+            waiters.remove(waiter);
+            if (waiters.isEmpty()) {
+                for (Iterator<HostQueue> it = ready.iterator(); it.hasNext(); ) {
+                    if (it.next() == this) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Takes {@code bytes} from the bucket.
+         *
+         * @return how long the caller has to wait for the bucket to cover them
+         */
+        private long reserve(long bytes) {
+            bucketLock.lock();
+            try {
+                long now = System.nanoTime();
+                tokens = Math.min(bytesPerSecond, tokens + (now - refilledAt) * bytesPerSecond / 1e9);
+                refilledAt = now;
+                tokens -= bytes;
+                return tokens >= 0 ? 0 : (long) (-tokens * 1e9 / bytesPerSecond);
+            } finally {
+                bucketLock.unlock();
+            }
+        }
+    }
+}
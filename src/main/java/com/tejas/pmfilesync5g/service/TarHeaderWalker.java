@@ -0,0 +1,262 @@
+package com.tejas.pmfilesync5g.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Lists the members of a tar archive by reading only its 512-byte headers and seeking past each
+ * member's data using the header's size field.
+ * <p>
+ * Understands ustar (including the name prefix), GNU long names ({@code L}) and base-256 sizes,
+ * and pax extended headers ({@code x}) overriding {@code path} and {@code size}.
+ * Only regular file members are reported.
+ */
+public final class TarHeaderWalker {
+
+    public static final int BLOCK_SIZE = 512;
+
+    // Upper bound for GNU long-name and pax header payloads, to fail fast on corrupt archives
+    private static final long MAX_METADATA_SIZE = 1024 * 1024;
+
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 100;
+    private static final int SIZE_OFFSET = 124;
+    private static final int SIZE_LENGTH = 12;
+    private static final int CHECKSUM_OFFSET = 148;
+    private static final int CHECKSUM_LENGTH = 8;
+    private static final int TYPE_OFFSET = 156;
+    private static final int MAGIC_OFFSET = 257;
+    private static final int PREFIX_OFFSET = 345;
+    private static final int PREFIX_LENGTH = 155;
+
+    private static final byte[] USTAR_MAGIC = {'u', 's', 't', 'a', 'r', 0};
+
+    private TarHeaderWalker() {
+    }
+
+    /**
+     * Positional read access to an archive; implementations decide how much to fetch per call.
+     */
+    public interface RangeReader {
+        /**
+         * Reads up to {@code length} bytes starting at {@code position}.
+         *
+         * @return number of bytes read, or -1 at end of archive
+         */
+        int read(long position, byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    /**
+     * A regular file member; {@code dataOffset} is where its content starts in the archive.
+     */
+    public record Entry(String name, long size, long dataOffset) {
+    }
+
+    public static List<Entry> list(RangeReader reader) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        walk(reader, entries::add);
+        return entries;
+    }
+
+    public static void walk(RangeReader reader, Consumer<Entry> visitor) throws IOException {
+        byte[] header = new byte[BLOCK_SIZE];
+        long position = 0;
+        String longName = null;
+        Map<String, String> pax = null;
+        
+        while (true) {
+            int read = readFully(reader, position, header, BLOCK_SIZE);
+            if (read == 0) {
+                // Archive ends without the two zero blocks; tar -tf tolerates this too
+                return;
+            }
+            if (read < BLOCK_SIZE) {
+                throw new IOException("Truncated tar header at offset " + position);
+            }
+            if (isZeroBlock(header)) {
+                return;
+            }
+            verifyChecksum(header, position);
+            
+            long size = parseNumber(header, SIZE_OFFSET, SIZE_LENGTH, position);
+            byte type = header[TYPE_OFFSET];
+            long dataOffset = position + BLOCK_SIZE;
+            
+            switch (type) {
+                case 'L' -> longName = trimAtNul(readPayload(reader, dataOffset, size));
+                case 'x' -> pax = parsePax(readPayload(reader, dataOffset, size), dataOffset);
+                case 'g', 'K' -> {
+                    // Global pax headers and GNU long link names do not affect member names
+                }
+                default -> {
+                    String name = longName != null ? longName : headerName(header);
+                    if (pax != null) {
+                        name = pax.getOrDefault("path", name);
+                        if (pax.containsKey("size")) {
+                            size = Long.parseLong(pax.get("size"));
+                        }
+                    }
+                    longName = null;
+                    pax = null;
+                    
+                    if (type == '0' || type == 0 || type == '7') {
+                        visitor.accept(new Entry(name, size, dataOffset));
+                    }
+                }
+            }
+            position = dataOffset + paddedSize(size);
+        }
+    }
+
+    public static long paddedSize(long size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+
+    private static int readFully(RangeReader reader, long position, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int n = reader.read(position + total, buffer, total, length - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static byte[] readPayload(RangeReader reader, long position, long size) throws IOException {
+        if (size < 0 || size > MAX_METADATA_SIZE) {
+            throw new IOException("Unreasonable tar metadata size " + size + " at offset " + position);
+        }
+        byte[] payload = new byte[(int) size];
+        if (readFully(reader, position, payload, payload.length) < payload.length) {
+            throw new IOException("Truncated tar metadata at offset " + position);
+        }
+        return payload;
+    }
+
+    private static boolean isZeroBlock(byte[] header) {
+        for (byte b : header) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void verifyChecksum(byte[] header, long position) throws IOException {
+        long expected = parseNumber(header, CHECKSUM_OFFSET, CHECKSUM_LENGTH, position);
+        long unsigned = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            // The checksum field itself is summed as if it were all spaces
+            int b = i >= CHECKSUM_OFFSET && i < CHECKSUM_OFFSET + CHECKSUM_LENGTH ? ' ' : header[i] & 0xff;
+            unsigned += b;
+        }
+        if (unsigned != expected) {
+            throw new IOException("Invalid tar header checksum at offset " + position);
+        }
+    }
+
+    /**
+     * Parses an octal numeric field, or a GNU base-256 field when the high bit of the first byte is set.
+     */
+    private static long parseNumber(byte[] header, int offset, int length, long position) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            if ((header[offset] & 0x40) != 0) {
+                throw new IOException("Negative tar numeric field at offset " + position);
+            }
+            long value = header[offset] & 0x3f;
+            for (int i = 1; i < length; i++) {
+                value = (value << 8) | (header[offset + i] & 0xff);
+            }
+            return value;
+        }
+        
+        long value = 0;
+        int i = offset;
+        int end = offset + length;
+        while (i < end && (header[i] == ' ' || header[i] == 0)) {
+            i++;
+        }
+        for (; i < end && header[i] != ' ' && header[i] != 0; i++) {
+            int digit = header[i] - '0';
+            if (digit < 0 || digit > 7) {
+                throw new IOException("Invalid octal digit in tar header at offset " + position);
+            }
+            value = (value << 3) | digit;
+        }
+        return value;
+    }
+
+    private static String headerName(byte[] header) {
+        String name = field(header, NAME_OFFSET, NAME_LENGTH);
+        if (isUstar(header)) {
+            String prefix = field(header, PREFIX_OFFSET, PREFIX_LENGTH);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static boolean isUstar(byte[] header) {
+        for (int i = 0; i < USTAR_MAGIC.length; i++) {
+            if (header[MAGIC_OFFSET + i] != USTAR_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimAtNul(byte[] payload) {
+        int end = 0;
+        while (end < payload.length && payload[end] != 0) {
+            end++;
+        }
+        return new String(payload, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses pax records of the form {@code "<length> <key>=<value>\n"}.
+     */
+    private static Map<String, String> parsePax(byte[] payload, long position) throws IOException {
+        Map<String, String> records = new HashMap<>();
+        int i = 0;
+        while (i < payload.length && payload[i] != 0) {
+            int space = i;
+            int length = 0;
+            while (space < payload.length && payload[space] != ' ') {
+                int digit = payload[space] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IOException("Invalid pax record length at offset " + (position + i));
+                }
+                length = length * 10 + digit;
+                space++;
+            }
+            int end = i + length;
+            if (end < space + 2 || end > payload.length) {
+                throw new IOException("Invalid pax record at offset " + (position + i));
+            }
+            String record = new String(payload, space + 1, end - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+            if (equals > 0) {
+                records.put(record.substring(0, equals), record.substring(equals + 1));
+            }
+            i = end;
+        }
+        return records;
+    }
+}
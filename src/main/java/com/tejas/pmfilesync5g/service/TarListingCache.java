@@ -0,0 +1,281 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.ArchiveRef;
+import com.tejas.pmfilesync5g.dto.PmFileMetadata;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of parsed tar listings keyed by (location, md5Checksum, fileSize) as
+ * announced by EMS, so redelivered or duplicate notifications skip SFTP entirely.
+ * <p>
+ * The in-memory tier is an LRU bounded by the total number of cached members. When a spill
+ * directory is configured, listings are also written through to disk under a hash of their key
+ * and read back on a memory miss, so the cache survives restarts. Archives without an md5Checksum
+ * are never cached because their content cannot be identified.
+ */
+@Slf4j
+@Component
+public class TarListingCache {
+
+    private static final String SPILL_SUFFIX = ".lst";
+    private static final int PRUNE_EVERY_WRITES = 1000;
+
+    @Value("${app.ingestion.listing-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingestion.listing-cache.max-members:1000000}")
+    private long maxMembers;
+
+    @Value("${app.ingestion.listing-cache.spill-dir:}")
+    private String spillDir;
+
+    @Value("${app.ingestion.listing-cache.spill-max-files:100000}")
+    private int spillMaxFiles;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<CacheKey, Listing> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long cachedMembers;
+    private Path spillPath;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong diskHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicInteger writesSincePrune = new AtomicInteger(0);
+
+    /**
+     * Member names of one archive with the metadata parsed from each, index-aligned.
+     */
+    public record Listing(List<String> xmlFiles, List<PmFileMetadata> metadata) {
+    }
+
+    private record CacheKey(String location, String md5Checksum, String fileSize) {
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        if (enabled && spillDir != null && !spillDir.isBlank()) {
+            spillPath = Path.of(spillDir);
+            Files.createDirectories(spillPath);
+            pruneSpillDirectory();
+            log.info("Tar listing cache spilling to {}", spillPath.toAbsolutePath());
+        }
+    }
+
+    /**
+     * @return the cached listing, or {@code null} on a miss or when the archive is not cacheable
+     */
+    public Listing get(ArchiveRef archive) {
+        CacheKey key = keyOf(archive);
+        if (key == null) {
+            return null;
+        }
+        
+        Listing listing;
+        lock.lock();
+        try {
+            listing = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (listing != null) {
+            hits.incrementAndGet();
+            return listing;
+        }
+        
+        listing = readSpilled(key);
+        if (listing != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, listing);
+            return listing;
+        }
+        
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(ArchiveRef archive, Listing listing) {
+        CacheKey key = keyOf(archive);
+        if (key == null) {
+            return;
+        }
+        putInMemory(key, listing);
+        writeSpilled(key, listing);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CacheKey keyOf(ArchiveRef archive) {
+        if (!enabled || archive.md5Checksum() == null || archive.md5Checksum().isBlank()) {
+            return null;
+        }
+        return new CacheKey(archive.location(), archive.md5Checksum(), archive.fileSize());
+    }
+
+    private void putInMemory(CacheKey key, Listing listing) {
+        lock.lock();
+        try {
+            Listing previous = entries.put(key, listing);
+            if (previous != null) {
+                cachedMembers -= previous.xmlFiles().size();
+            }
+            cachedMembers += listing.xmlFiles().size();
+            
+            Iterator<Map.Entry<CacheKey, Listing>> eldest = entries.entrySet().iterator();
+            while (cachedMembers > maxMembers && eldest.hasNext()) {
+                Map.Entry<CacheKey, Listing> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    // Never evict the listing just added, even if it alone exceeds the bound
+                    continue;
+                }
+                cachedMembers -= entry.getValue().xmlFiles().size();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Listing readSpilled(CacheKey key) {
+        if (spillPath == null) {
+            return null;
+        }
+        Path file = spillPath.resolve(fileName(key));
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            List<String> xmlFiles = new ArrayList<>(lines.size());
+            List<PmFileMetadata> metadata = new ArrayList<>(lines.size());
+            // One member name per line; the metadata is re-derived from it
+            for (String xmlFile : lines) {
+                xmlFiles.add(xmlFile);
+                metadata.add(PmFileNameParser.parse(xmlFile));
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Listing(List.copyOf(xmlFiles), List.copyOf(metadata));
+        } catch (Exception e) {
+            log.warn("Discarding unreadable spilled tar listing {}: {}", file, e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Best effort; it will be overwritten on the next put
+            }
+            return null;
+        }
+    }
+
+    private void writeSpilled(CacheKey key, Listing listing) {
+        if (spillPath == null) {
+            return;
+        }
+        Path file = spillPath.resolve(fileName(key));
+        try {
+            Path temp = Files.createTempFile(spillPath, "listing", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (String xmlFile : listing.xmlFiles()) {
+                    writer.write(xmlFile);
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to spill tar listing to {}: {}", file, e.getMessage());
+        }
+        
+        if (writesSincePrune.incrementAndGet() >= PRUNE_EVERY_WRITES) {
+            writesSincePrune.set(0);
+            pruneSpillDirectory();
+        }
+    }
+
+    private void pruneSpillDirectory() {
+        try (Stream<Path> files = Files.list(spillPath)) {
+            List<Path> spilled = files.filter(path -> path.toString().endsWith(SPILL_SUFFIX)).toList();
+            if (spilled.size() <= spillMaxFiles) {
+                return;
+            }
+            List<Path> oldestFirst = new ArrayList<>(spilled);
+            oldestFirst.sort(Comparator.comparing(TarListingCache::lastModified));
+            for (Path path : oldestFirst.subList(0, spilled.size() - spillMaxFiles)) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune tar listing spill directory {}: {}", spillPath, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Hashes the key so neither the location's credentials nor path characters reach the file system.
+     */
+    private static String fileName(CacheKey key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(key.location().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(key.md5Checksum().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(key.fileSize()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest()) + SPILL_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
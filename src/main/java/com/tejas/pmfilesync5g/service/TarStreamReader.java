@@ -0,0 +1,108 @@
+package com.tejas.pmfilesync5g.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Walks a tar archive read once, front to back, from a stream, handing each regular file member to a
+ * visitor together with a stream over its content.
+ * <p>
+ * Headers are parsed by {@link TarHeaderWalker} on top of this forward-only range reader: whatever part
+ * of a member the visitor does not read is skipped when the walker moves on to the next header, so
+ * memory stays bounded by the walker's header buffer however large the archive is.
+ */
+public final class TarStreamReader implements TarHeaderWalker.RangeReader {
+
+    /**
+     * Receives each member in archive order; {@code content} is only valid during the call.
+     */
+    public interface EntryVisitor {
+        void visit(TarHeaderWalker.Entry entry, InputStream content) throws IOException;
+    }
+
+    private final InputStream in;
+    private long position;
+
+    private TarStreamReader(InputStream in) {
+        this.in = in;
+    }
+
+    public static void walk(InputStream in, EntryVisitor visitor) throws IOException {
+        TarStreamReader reader = new TarStreamReader(in);
+        try {
+            TarHeaderWalker.walk(reader, entry -> {
+                try {
+                    visitor.visit(entry, reader.new MemberStream(entry));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        if (position < this.position) {
+            throw new IOException("Cannot seek back to offset " + position + " in a tar stream at offset " + this.position);
+        }
+        skipTo(position);
+        int n = in.read(buffer, offset, length);
+        if (n > 0) {
+            this.position += n;
+        }
+        return n;
+    }
+
+    private void skipTo(long target) throws IOException {
+        while (position < target) {
+            long skipped = in.skip(target - position);
+            if (skipped <= 0) {
+                // skip() may stop short before the end; read() tells the two apart
+                if (in.read() < 0) {
+                    return;
+                }
+                skipped = 1;
+            }
+            position += skipped;
+        }
+    }
+
+    /**
+     * The content of one member, read through the archive stream; closing it leaves the archive open.
+     */
+    private final class MemberStream extends InputStream {
+
+        private final long end;
+        private long next;
+
+        MemberStream(TarHeaderWalker.Entry entry) {
+            this.next = entry.dataOffset();
+            this.end = entry.dataOffset() + entry.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (next >= end) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            int n = TarStreamReader.this.read(next, buffer, offset, (int) Math.min(length, end - next));
+            if (n < 0) {
+                throw new IOException("Truncated tar member at offset " + next);
+            }
+            next += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.config.TopicConfiguration;
+import com.tejas.pmfilesync5g.consumer.DynamicKafkaConsumer;
+import com.tejas.pmfilesync5g.dto.TopicReloadResult;
+import com.tejas.pmfilesync5g.exception.TopicConfigReloadException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Re-reads the {@code topics} list from the topic configuration file and applies it to the running
+ * consumers through {@link DynamicKafkaConsumer#reconcileTopics}, either on demand or when the file changes.
+ * <p>
+ * The watcher reacts to the file itself and to Kubernetes ConfigMap symlink swaps ({@code ..data}) in
+ * its directory, and waits {@code reload-debounce-ms} for writes to settle before reloading. A file that
+ * cannot be parsed, fails validation or lists no topics is rejected and the running consumers are kept.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TopicConfigReloader {
+
+    private static final String CONFIG_MAP_PREFIX = "..";
+
+    private final TopicConfiguration topicConfiguration;
+    private final DynamicKafkaConsumer dynamicKafkaConsumer;
+    private final Environment environment;
+
+    @Value("${app.kafka.topic-config.path:./topic_config.yml}")
+    private String configPath;
+
+    @Value("${app.kafka.topic-config.watch:true}")
+    private boolean watch;
+
+    @Value("${app.kafka.topic-config.reload-debounce-ms:500}")
+    private long reloadDebounceMs;
+
+    private WatchService watchService;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!watch) {
+            return;
+        }
+
+        Path file = Path.of(configPath).toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            log.warn("Not watching topic configuration: directory of {} does not exist", file);
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().name("topic-config-watcher").daemon().start(() -> watchLoop(file.getFileName()));
+        log.info("Watching {} for topic configuration changes", file);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Reads the topic configuration file and starts, stops, restarts or resizes only the topics whose
+     * consumer settings changed.
+     *
+     * @throws TopicConfigReloadException if the file cannot be read or is invalid
+     */
+    public synchronized TopicReloadResult reload() {
+        List<TopicConfiguration.TopicConfig> topics = readTopics();
+        TopicReloadResult result = dynamicKafkaConsumer.reconcileTopics(topics);
+        topicConfiguration.setTopics(topics);
+        return result;
+    }
+
+    private void watchLoop(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isRelevant(key, fileName);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Editors and ConfigMap updates write in several steps; reload once they have settled
+                Thread.sleep(reloadDebounceMs);
+                while ((key = watchService.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+
+                try {
+                    reload();
+                } catch (TopicConfigReloadException e) {
+                    log.error("Ignoring changed topic configuration, keeping the running consumers: {}", e.getMessage(), e);
+                } catch (Exception e) {
+                    log.error("Error applying changed topic configuration", e);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Topic configuration watcher stopped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isRelevant(WatchKey key, Path fileName) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed
+                && (changed.equals(fileName) || changed.toString().startsWith(CONFIG_MAP_PREFIX))) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    private List<TopicConfiguration.TopicConfig> readTopics() {
+        Path file = Path.of(configPath);
+        if (!Files.isRegularFile(file)) {
+            throw new TopicConfigReloadException("Topic configuration file not found: " + file.toAbsolutePath());
+        }
+
+        List<TopicConfiguration.TopicConfig> topics;
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load("topic-config", new FileSystemResource(file));
+            Binder binder = new Binder(ConfigurationPropertySources.from(sources), new PropertySourcesPlaceholdersResolver(environment));
+            topics = binder.bind("topics", Bindable.listOf(TopicConfiguration.TopicConfig.class)).orElse(List.of());
+        } catch (IOException | RuntimeException e) {
+            throw new TopicConfigReloadException("Could not read topic configuration from " + file.toAbsolutePath(), e);
+        }
+
+        // An empty list is far more likely a half-written file than a request to stop every consumer
+        if (topics.isEmpty()) {
+            throw new TopicConfigReloadException("Topic configuration " + file.toAbsolutePath() + " lists no topics");
+        }
+        for (TopicConfiguration.TopicConfig topic : topics) {
+            validate(topic);
+        }
+        return topics;
+    }
+
+    private static void validate(TopicConfiguration.TopicConfig topic) {
+        if (isBlank(topic.getName()) || isBlank(topic.getBroker())) {
+            throw new TopicConfigReloadException("Every topic needs a name and a broker");
+        }
+        TopicConfiguration.ConsumerConfig consumer = topic.getConsumer();
+        if (consumer == null || isBlank(consumer.getGroupId()) || consumer.getThreads() < 1) {
+            throw new TopicConfigReloadException("Topic " + topic.getName() + " needs a consumer group-id and at least one thread");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
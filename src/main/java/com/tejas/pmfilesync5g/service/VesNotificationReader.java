@@ -0,0 +1,281 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tejas.pmfilesync5g.dto.VesEvent;
+import com.tejas.pmfilesync5g.dto.VesNotification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extracts a {@link VesNotification} from a raw VES message with a streaming {@link JsonParser},
+ * skipping every field the ingestion does not read instead of binding the full {@link VesEvent}.
+ * <p>
+ * Known {@link VesEvent} fields are still shape-checked. Any message the fast path cannot vouch
+ * for (malformed JSON, missing sections, unexpected types) is handed to full binding, so errors
+ * and invalid-structure handling stay exactly as with {@code objectMapper.readValue}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VesNotificationReader {
+
+    /** String fields of {@link VesEvent.HashMapContent}; binding rejects objects and arrays for them. */
+    private static final Set<String> HASH_MAP_FIELDS = Set.of("location", "md5Checksum", "fileSize",
+        "compression", "fileFormatType", "fileDataType", "fileFormatVersion");
+
+    private static final VesNotification.File INVALID = new VesNotification.File(null, null, null);
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong streamed = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * @return the notification, or {@code null} if the event is missing its event or notificationFields section
+     * @throws JsonProcessingException if the message cannot be bound to {@link VesEvent}
+     */
+    public VesNotification read(String message) throws JsonProcessingException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            VesNotification notification = readRoot(parser);
+            if (notification != null) {
+                streamed.incrementAndGet();
+                return notification;
+            }
+        } catch (IOException e) {
+            log.debug("Streaming extraction failed, falling back to full binding: {}", e.getMessage());
+        }
+        
+        fallbacks.incrementAndGet();
+        return fromVesEvent(objectMapper.readValue(message, VesEvent.class));
+    }
+
+    /**
+     * Same extraction over an already bound event.
+     *
+     * @return the notification, or {@code null} if the event is missing its event or notificationFields section
+     */
+    public static VesNotification fromVesEvent(VesEvent vesEvent) {
+        if (vesEvent.getEvent() == null || vesEvent.getEvent().getNotificationFields() == null) {
+            log.warn("Invalid VES event structure, missing event or notificationFields");
+            return null;
+        }
+        
+        var header = vesEvent.getEvent().getCommonEventHeader();
+        String sourceName = header.getSourceName();
+        List<VesNotification.File> files = new ArrayList<>();
+        
+        var notificationFields = vesEvent.getEvent().getNotificationFields();
+        if (notificationFields.getArrayOfNamedHashMap() != null) {
+            for (var namedHashMap : notificationFields.getArrayOfNamedHashMap()) {
+                var hashMap = namedHashMap.getHashMap();
+                if (hashMap != null) {
+                    String location = hashMap.getLocation();
+                    if (location != null && !location.isEmpty()) {
+                        files.add(new VesNotification.File(location, hashMap.getMd5Checksum(), hashMap.getFileSize()));
+                    }
+                }
+            }
+        }
+        return new VesNotification(header.getEventId(), sourceName, files);
+    }
+
+    // The read* methods below return null whenever the message needs full binding.
+
+    private VesNotification readRoot(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        
+        VesNotification notification = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("event".equals(field)) {
+                notification = token == JsonToken.START_OBJECT ? readEvent(parser) : null;
+                if (notification == null) {
+                    return null;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return notification;
+    }
+
+    private VesNotification readEvent(JsonParser parser) throws IOException {
+        Header header = null;
+        List<VesNotification.File> files = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "commonEventHeader" -> {
+                    header = token == JsonToken.START_OBJECT ? readHeader(parser) : null;
+                    if (header == null) {
+                        return null;
+                    }
+                }
+                case "notificationFields" -> {
+                    files = token == JsonToken.START_OBJECT ? readNotificationFields(parser) : null;
+                    if (files == null) {
+                        return null;
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        
+        if (header == null || files == null) {
+            return null;
+        }
+        return new VesNotification(header.eventId(), header.sourceName(), files);
+    }
+
+    private Header readHeader(JsonParser parser) throws IOException {
+        String eventId = null;
+        String sourceName = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "eventId" -> {
+                    if (!token.isScalarValue()) {
+                        return null;
+                    }
+                    eventId = text(parser, token);
+                }
+                case "sourceName" -> {
+                    if (!token.isScalarValue()) {
+                        return null;
+                    }
+                    sourceName = text(parser, token);
+                }
+                case "domain", "version", "eventName", "reportingEntityName" -> {
+                    if (!token.isScalarValue()) {
+                        return null;
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new Header(eventId, sourceName);
+    }
+
+    private List<VesNotification.File> readNotificationFields(JsonParser parser) throws IOException {
+        List<VesNotification.File> files = List.of();
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "arrayOfNamedHashMap" -> {
+                    if (token == JsonToken.VALUE_NULL) {
+                        files = List.of();
+                    } else {
+                        files = token == JsonToken.START_ARRAY ? readFiles(parser) : null;
+                        if (files == null) {
+                            return null;
+                        }
+                    }
+                }
+                case "changeIdentifier", "changeType", "notificationFieldsVersion" -> {
+                    if (!token.isScalarValue()) {
+                        return null;
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return files;
+    }
+
+    private List<VesNotification.File> readFiles(JsonParser parser) throws IOException {
+        List<VesNotification.File> files = new ArrayList<>();
+        
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                return null;
+            }
+            
+            VesNotification.File file = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                switch (field) {
+                    case "hashMap" -> {
+                        if (valueToken == JsonToken.VALUE_NULL) {
+                            file = null;
+                        } else if (valueToken == JsonToken.START_OBJECT) {
+                            file = readHashMap(parser);
+                            if (file == INVALID) {
+                                return null;
+                            }
+                        } else {
+                            return null;
+                        }
+                    }
+                    case "name" -> {
+                        if (!valueToken.isScalarValue()) {
+                            return null;
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            
+            if (file != null && file.location() != null && !file.location().isEmpty()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private VesNotification.File readHashMap(JsonParser parser) throws IOException {
+        String location = null;
+        String md5Checksum = null;
+        String fileSize = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (HASH_MAP_FIELDS.contains(field) && !token.isScalarValue()) {
+                return INVALID;
+            }
+            switch (field) {
+                case "location" -> location = text(parser, token);
+                case "md5Checksum" -> md5Checksum = text(parser, token);
+                case "fileSize" -> fileSize = text(parser, token);
+                default -> parser.skipChildren();
+            }
+        }
+        return new VesNotification.File(location, md5Checksum, fileSize);
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    public long getStreamed() {
+        return streamed.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    private record Header(String eventId, String sourceName) {
+    }
+}
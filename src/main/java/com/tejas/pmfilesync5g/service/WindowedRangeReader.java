@@ -0,0 +1,62 @@
+package com.tejas.pmfilesync5g.service;
+
+import java.io.IOException;
+
+/**
+ * Range reader that fetches ahead in windows and serves reads inside the current window from memory.
+ * <p>
+ * When the previous seek jumped further than a full window, members are large and read-ahead would
+ * mostly fetch member data, so the next fetch is shrunk to {@link #MIN_FETCH_BYTES} (a header plus a
+ * short GNU long-name or pax block). Archives of small members keep full windows, covering several
+ * headers per fetch.
+ */
+public abstract class WindowedRangeReader implements TarHeaderWalker.RangeReader {
+
+    static final int MIN_FETCH_BYTES = 2 * TarHeaderWalker.BLOCK_SIZE;
+
+    private final byte[] window;
+    private long windowStart = -1;
+    private int windowLength;
+    private long bytesFetched;
+    private int fetches;
+
+    protected WindowedRangeReader(int windowSize) {
+        this.window = new byte[Math.max(windowSize, MIN_FETCH_BYTES)];
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code position} from the underlying archive into {@code buffer},
+     * stopping early only at end of archive.
+     *
+     * @return bytes read, 0 at end of archive
+     */
+    protected abstract int fetch(long position, byte[] buffer, int length) throws IOException;
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        if (windowStart < 0 || position < windowStart || position >= windowStart + windowLength) {
+            boolean longSeek = windowStart >= 0 && position - (windowStart + windowLength) >= window.length;
+            int fetchSize = longSeek ? Math.max(MIN_FETCH_BYTES, length) : window.length;
+            
+            windowStart = position;
+            windowLength = Math.max(0, fetch(position, window, Math.min(fetchSize, window.length)));
+            bytesFetched += windowLength;
+            fetches++;
+            if (windowLength == 0) {
+                return -1;
+            }
+        }
+        int from = (int) (position - windowStart);
+        int n = Math.min(length, windowLength - from);
+        System.arraycopy(window, from, buffer, offset, n);
+        return n;
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    public int getFetches() {
+        return fetches;
+    }
+}
@@ -0,0 +1,245 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.dto.NfType;
+import com.tejas.pmfilesync5g.dto.PmFileRecord;
+import com.tejas.pmfilesync5g.repository.PmFileSyncBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects DU/CU rows from many Kafka records and writes them in one transaction once {@code max-rows}
+ * rows are pending or the oldest has waited {@code max-age-ms}. Rows for the same file path are merged
+ * before the flush, the latest one winning, as the upsert would.
+ * <p>
+ * Every submission returns the future of the flush that will hold its rows, which completes only after
+ * that transaction has committed, or fails with its exception. Callers acknowledge their records once it
+ * completes, so a crash before the commit leaves them to be redelivered.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WriteBehindBuffer {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    private final PmFileSyncBulkRepository bulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PipelineMetrics metrics;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ingestion.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.ingestion.write-behind.max-rows:20000}")
+    private int maxRows;
+
+    @Value("${app.ingestion.write-behind.max-age-ms:200}")
+    private long maxAgeMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled when the flusher has a new batch to age or a full one to flush, and on stop
+    private final Condition changed = lock.newCondition();
+    private Batch pending = new Batch();
+    private volatile boolean running;
+    private Thread flusher;
+
+    private Timer flushTimer;
+    private DistributionSummary flushRows;
+    private Counter mergedRows;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        flushTimer = Timer.builder("pm.sync.write.behind.flush.duration")
+            .description("Time to write one write-behind flush, including its commit")
+            .register(meterRegistry);
+        flushRows = DistributionSummary.builder("pm.sync.write.behind.flush.rows")
+            .description("Rows written per write-behind flush after merging")
+            .register(meterRegistry);
+        mergedRows = Counter.builder("pm.sync.write.behind.merged")
+            .description("Rows merged into a pending row for the same file path before a flush")
+            .register(meterRegistry);
+        Gauge.builder("pm.sync.write.behind.pending", this, WriteBehindBuffer::getPendingRows)
+            .description("Rows waiting for the next write-behind flush")
+            .register(meterRegistry);
+
+        running = true;
+        flusher = Thread.ofPlatform().name("write-behind-flusher").daemon().start(this::flushLoop);
+        log.info("Write-behind ingestion enabled: flushing every {} rows or {} ms", maxRows, maxAgeMs);
+    }
+
+    /**
+     * Flushes whatever is pending and stops the flusher; submissions after this are rejected.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(SHUTDOWN_TIMEOUT_MS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds rows read from one Kafka record of {@code topic} to the pending flush.
+     *
+     * @return completes once the flush holding these rows has committed
+     */
+    public CompletableFuture<Void> submit(String topic, List<PmFileRecord> duRecords, List<PmFileRecord> cuRecords) {
+        if (duRecords.isEmpty() && cuRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lock.lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Write-behind buffer is not running"));
+            }
+            Batch batch = pending;
+            boolean wasEmpty = batch.rows == 0;
+            batch.add(topic, NfType.DU, duRecords);
+            batch.add(topic, NfType.CU, cuRecords);
+            if (wasEmpty || batch.rows >= maxRows) {
+                // Wake the flusher to start the age clock of a new batch or to flush a full one
+                changed.signalAll();
+            }
+            return batch.flushed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingRows() {
+        lock.lock();
+        try {
+            return pending.rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Batch batch;
+            lock.lock();
+            try {
+                try {
+                    while (running && !isDue(pending)) {
+                        if (pending.rows == 0) {
+                            changed.await();
+                        } else {
+                            long ageMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pending.startedAt);
+                            changed.await(Math.max(1, maxAgeMs - ageMs), TimeUnit.MILLISECONDS);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                batch = pending;
+                pending = new Batch();
+            } finally {
+                lock.unlock();
+            }
+
+            flush(batch);
+            if (!running && getPendingRows() == 0) {
+                return;
+            }
+        }
+    }
+
+    private boolean isDue(Batch batch) {
+        return batch.rows >= maxRows
+            || (batch.rows > 0 && System.nanoTime() - batch.startedAt >= TimeUnit.MILLISECONDS.toNanos(maxAgeMs));
+    }
+
+    private void flush(Batch batch) {
+        if (batch.rows == 0) {
+            batch.flushed.complete(null);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                batch.byType.forEach((nfType, rows) -> bulkRepository.upsert(nfType, rows.values())));
+            batch.submitted.forEach((key, count) -> metrics.recordUpserted(key.topic(), key.nfType(), count));
+            batch.flushed.complete(null);
+            log.debug("Flushed {} write-behind rows ({} merged)", batch.rows, batch.merged);
+        } catch (Exception e) {
+            log.error("Write-behind flush of {} rows failed", batch.rows, e);
+            batch.flushed.completeExceptionally(e);
+        } finally {
+            sample.stop(flushTimer);
+            flushRows.record(batch.rows);
+            mergedRows.increment(batch.merged);
+        }
+    }
+
+    private record SourceKey(String topic, NfType nfType) {
+    }
+
+    /**
+     * Rows pending for one flush, merged by file path per NF type.
+     */
+    private static final class Batch {
+
+        private final Map<NfType, Map<String, PmFileRecord>> byType = new EnumMap<>(NfType.class);
+        private final Map<SourceKey, Integer> submitted = new HashMap<>();
+        private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+        private long startedAt;
+        private int rows;
+        private int merged;
+
+        void add(String topic, NfType nfType, List<PmFileRecord> records) {
+            if (records.isEmpty()) {
+                return;
+            }
+            if (rows == 0) {
+                startedAt = System.nanoTime();
+            }
+            Map<String, PmFileRecord> typed = byType.computeIfAbsent(nfType, t -> new LinkedHashMap<>());
+            for (PmFileRecord record : records) {
+                if (typed.put(record.filePath(), record) == null) {
+                    rows++;
+                } else {
+                    merged++;
+                }
+            }
+            submitted.merge(new SourceKey(topic, nfType), records.size(), Integer::sum);
+        }
+    }
+}
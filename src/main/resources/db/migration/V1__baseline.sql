@@ -0,0 +1,24 @@
+-- Sync tables as they existed before schema migrations were introduced. Databases that already have
+-- them are baselined at this version (spring.flyway.baseline-on-migrate), so this only runs on empty ones.
+
+CREATE TABLE IF NOT EXISTS du_pm_file_sync (
+    id            uuid         NOT NULL PRIMARY KEY,
+    rsync_id      uuid         NOT NULL,
+    time          timestamptz  NOT NULL,
+    serial_number varchar(15)  NOT NULL,
+    file_path     varchar(255) NOT NULL UNIQUE,
+    status        smallint,
+    created_at    timestamptz,
+    updated_at    timestamptz
+);
+
+CREATE TABLE IF NOT EXISTS cu_pm_file_sync (
+    id            uuid         NOT NULL PRIMARY KEY,
+    rsync_id      uuid         NOT NULL,
+    time          timestamptz  NOT NULL,
+    serial_number varchar(15)  NOT NULL,
+    file_path     varchar(255) NOT NULL UNIQUE,
+    status        smallint,
+    created_at    timestamptz,
+    updated_at    timestamptz
+);
@@ -0,0 +1,68 @@
+-- Range-partition the sync tables by UTC day of `time` so expired rows are removed by dropping whole
+-- partitions (see PartitionMaintenanceService) instead of by DELETE.
+--
+-- Unique keys on a partitioned table must include the partition key, so the file_path key becomes
+-- (file_path, time). `time` is parsed from the file name, so a path still maps to exactly one row.
+--
+-- Existing rows are not copied: the old table is attached as a single <table>_legacy partition covering
+-- everything up to the end of the current day (or of its latest row), which retention drops once all of
+-- it has expired. Attaching scans it and builds the new keys on it, so expect this to take a while on
+-- large tables. Daily partitions are created for the following week and a default partition catches
+-- rows outside every daily range.
+
+DO $$
+DECLARE
+    tbl        text;
+    legacy     text;
+    constraint_name text;
+    latest     timestamp;
+    legacy_end timestamp;
+    day        timestamp;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['du_pm_file_sync', 'cu_pm_file_sync'] LOOP
+        legacy := tbl || '_legacy';
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', tbl, legacy);
+        FOR constraint_name IN
+            SELECT conname FROM pg_constraint WHERE conrelid = legacy::regclass AND contype IN ('p', 'u')
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', legacy, constraint_name);
+        END LOOP;
+
+        EXECUTE format($ddl$
+            CREATE TABLE %I (
+                id            uuid         NOT NULL,
+                rsync_id      uuid         NOT NULL,
+                time          timestamptz  NOT NULL,
+                serial_number varchar(15)  NOT NULL,
+                file_path     varchar(255) NOT NULL,
+                status        smallint,
+                created_at    timestamptz,
+                updated_at    timestamptz,
+                CONSTRAINT %I PRIMARY KEY (id, time),
+                CONSTRAINT %I UNIQUE (file_path, time)
+            ) PARTITION BY RANGE (time)
+            $ddl$, tbl, tbl || '_pkey', tbl || '_file_path_time_key');
+
+        legacy_end := date_trunc('day', now() AT TIME ZONE 'UTC') + interval '1 day';
+        EXECUTE format('SELECT max(time) AT TIME ZONE ''UTC'' FROM %I', legacy) INTO latest;
+        IF latest IS NULL THEN
+            EXECUTE format('DROP TABLE %I', legacy);
+            legacy_end := legacy_end - interval '1 day';
+        ELSE
+            legacy_end := greatest(legacy_end, date_trunc('day', latest) + interval '1 day');
+            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                tbl, legacy, legacy_end AT TIME ZONE 'UTC');
+        END IF;
+
+        day := legacy_end;
+        WHILE day < date_trunc('day', now() AT TIME ZONE 'UTC') + interval '8 days' LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                tbl || '_p' || to_char(day, 'YYYYMMDD'), tbl,
+                day AT TIME ZONE 'UTC', (day + interval '1 day') AT TIME ZONE 'UTC');
+            day := day + interval '1 day';
+        END LOOP;
+
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', tbl || '_default', tbl);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,18 @@
+-- Work queue over the status lifecycle: downstream parsers claim CREATED rows, which become IN_PROGRESS
+-- with a lease, and complete them or let the lease expire so they are reclaimed. The partial indexes only
+-- hold rows in those two states, so claiming stays an index scan however many COMPLETED rows accumulate.
+-- Indexes created on the partitioned parents cascade to every existing and future partition.
+
+ALTER TABLE du_pm_file_sync
+    ADD COLUMN lease_expires_at timestamptz,
+    ADD COLUMN claimed_by       varchar(64);
+
+ALTER TABLE cu_pm_file_sync
+    ADD COLUMN lease_expires_at timestamptz,
+    ADD COLUMN claimed_by       varchar(64);
+
+CREATE INDEX du_pm_file_sync_created_idx ON du_pm_file_sync (time) WHERE status = 0;
+CREATE INDEX du_pm_file_sync_lease_idx ON du_pm_file_sync (lease_expires_at) WHERE status = 1;
+
+CREATE INDEX cu_pm_file_sync_created_idx ON cu_pm_file_sync (time) WHERE status = 0;
+CREATE INDEX cu_pm_file_sync_lease_idx ON cu_pm_file_sync (lease_expires_at) WHERE status = 1;
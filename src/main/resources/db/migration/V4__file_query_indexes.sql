@@ -0,0 +1,11 @@
+-- Keyset pagination for the file query API orders by (time, id) and seeks past the last row returned,
+-- optionally filtered by serial number or status. Each filter gets a composite index ending in
+-- (time, id), so a page is an index range scan whatever its position.
+
+CREATE INDEX du_pm_file_sync_time_id_idx ON du_pm_file_sync (time, id);
+CREATE INDEX du_pm_file_sync_serial_time_id_idx ON du_pm_file_sync (serial_number, time, id);
+CREATE INDEX du_pm_file_sync_status_time_id_idx ON du_pm_file_sync (status, time, id);
+
+CREATE INDEX cu_pm_file_sync_time_id_idx ON cu_pm_file_sync (time, id);
+CREATE INDEX cu_pm_file_sync_serial_time_id_idx ON cu_pm_file_sync (serial_number, time, id);
+CREATE INDEX cu_pm_file_sync_status_time_id_idx ON cu_pm_file_sync (status, time, id);
@@ -0,0 +1,46 @@
+-- Normalized storage used when app.storage.mode is "normalized": one pm_archive row per tar, and one compact
+-- pm_archive_member row per XML member. The prefix the member names of an archive share (the 3GPP date and
+-- interval part) is stored once on the archive; members keep the rest of the name, the interval start and the
+-- serial number. Members are keyed by (archive_id, member_suffix), so reading an archive's members is an
+-- index-only scan, and they go with their archive when it is deleted.
+
+CREATE TABLE IF NOT EXISTS pm_archive (
+    id            bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    rsync_id      uuid          NOT NULL,
+    file_size     bigint,
+    latest_time   timestamptz,
+    created_at    timestamptz,
+    updated_at    timestamptz,
+    nf_type       varchar(2)    NOT NULL,
+    md5_checksum  varchar(64),
+    member_prefix varchar(255)  NOT NULL,
+    location      varchar(1024) NOT NULL,
+    CONSTRAINT pm_archive_location_key UNIQUE (location)
+);
+
+CREATE INDEX IF NOT EXISTS pm_archive_latest_time_idx ON pm_archive (latest_time);
+
+CREATE TABLE IF NOT EXISTS pm_archive_member (
+    archive_id    bigint       NOT NULL REFERENCES pm_archive (id) ON DELETE CASCADE,
+    time          timestamptz  NOT NULL,
+    status        smallint     NOT NULL,
+    serial_number varchar(15)  NOT NULL,
+    member_suffix varchar(255) NOT NULL,
+    CONSTRAINT pm_archive_member_pkey PRIMARY KEY (archive_id, member_suffix)
+);
+
+CREATE INDEX IF NOT EXISTS pm_archive_member_serial_time_idx ON pm_archive_member (serial_number, time);
+
+-- The members in the shape of the flat sync tables, for readers that want full file paths
+CREATE OR REPLACE VIEW pm_archive_file AS
+SELECT a.nf_type,
+       a.location                        AS archive_location,
+       a.rsync_id,
+       m.time,
+       m.serial_number,
+       a.member_prefix || m.member_suffix AS file_path,
+       m.status,
+       a.created_at,
+       a.updated_at
+FROM pm_archive_member m
+JOIN pm_archive a ON a.id = m.archive_id;
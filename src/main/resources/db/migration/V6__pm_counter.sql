@@ -0,0 +1,17 @@
+-- Counter values extracted from the measCollec XML of ingested archives when measurement extraction writes to
+-- the postgres sink. Keyed by node, NF type, interval and counter, so re-ingesting an archive overwrites its values
+-- instead of duplicating them. Missing measInfoId/measObjLdn are stored as empty strings to keep the key usable.
+
+CREATE TABLE IF NOT EXISTS pm_counter (
+    time          timestamptz      NOT NULL,
+    value         double precision,
+    created_at    timestamptz,
+    nf_type       varchar(2)       NOT NULL,
+    serial_number varchar(15)      NOT NULL,
+    meas_info_id  varchar(255)     NOT NULL,
+    meas_obj_ldn  varchar(512)     NOT NULL,
+    meas_type     varchar(255)     NOT NULL,
+    CONSTRAINT pm_counter_pkey PRIMARY KEY (serial_number, nf_type, time, meas_info_id, meas_obj_ldn, meas_type)
+);
+
+CREATE INDEX IF NOT EXISTS pm_counter_time_idx ON pm_counter (time);
@@ -0,0 +1,114 @@
+package com.tejas.pmfilesync5g.consumer;
+
+import com.tejas.pmfilesync5g.consumer.RecordPipeline.OffsetTracker;
+import com.tejas.pmfilesync5g.consumer.RecordPipeline.OffsetTracker.Submission;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffsetTrackerTest {
+
+    private final OffsetTracker tracker = new OffsetTracker();
+    private final List<Long> acknowledged = new ArrayList<>();
+
+    @Test
+    void acknowledgesUpToTheHighestContiguousCompletedOffset() {
+        Submission first = begin(0);
+        Submission second = begin(1);
+        Submission third = begin(2);
+
+        tracker.complete(2, third);
+        assertThat(acknowledged).isEmpty();
+
+        tracker.complete(0, first);
+        assertThat(acknowledged).containsExactly(0L);
+
+        tracker.complete(1, second);
+        assertThat(acknowledged).containsExactly(0L, 2L);
+    }
+
+    @Test
+    void failedOffsetHoldsTheWatermarkAndDropsLaterOffsets() {
+        tracker.complete(0, begin(0));
+        Submission failed = begin(1);
+        Submission queued = begin(2);
+        Submission completedEarly = begin(3);
+        tracker.complete(3, completedEarly);
+
+        assertThat(tracker.fail(1, failed)).isTrue();
+        assertThat(tracker.isLive(2, queued)).isFalse();
+
+        tracker.complete(2, queued);
+        assertThat(acknowledged).containsExactly(0L);
+    }
+
+    @Test
+    void dropsLeftoversOfThePreviousFetchUntilTheRewoundOffsetIsRedelivered() {
+        Submission failed = begin(0);
+        begin(1);
+        tracker.fail(0, failed);
+
+        assertThat(tracker.begin(2, ack(2))).isNull();
+
+        Submission redelivered = begin(0);
+        Submission next = begin(1);
+        tracker.complete(1, next);
+        tracker.complete(0, redelivered);
+        assertThat(acknowledged).containsExactly(1L);
+    }
+
+    @Test
+    void staleSubmissionCannotCompleteOrFailItsRedelivery() {
+        Submission failed = begin(0);
+        Submission stale = begin(1);
+        tracker.fail(0, failed);
+
+        Submission redelivered = begin(0);
+        Submission redeliveredNext = begin(1);
+
+        assertThat(tracker.fail(1, stale)).isFalse();
+        tracker.complete(1, stale);
+        assertThat(tracker.isLive(1, redeliveredNext)).isTrue();
+
+        tracker.complete(0, redelivered);
+        assertThat(acknowledged).containsExactly(0L);
+    }
+
+    @Test
+    void failingAnOffsetAlreadyDroppedByAnEarlierRewindDoesNotRewindAgain() {
+        Submission earlier = begin(0);
+        Submission later = begin(1);
+
+        assertThat(tracker.fail(0, earlier)).isTrue();
+        assertThat(tracker.fail(1, later)).isFalse();
+    }
+
+    @Test
+    void revokeDropsPendingOffsetsAndCountsThoseStillInFlight() {
+        Submission first = begin(0);
+        Submission second = begin(1);
+        begin(2);
+        tracker.complete(1, second);
+
+        assertThat(tracker.revoke()).isEqualTo(2);
+
+        tracker.complete(0, first);
+        assertThat(acknowledged).isEmpty();
+
+        Submission afterRevoke = begin(3);
+        assertThat(afterRevoke).isNotNull();
+        assertThat(tracker.isLive(3, afterRevoke)).isFalse();
+    }
+
+    private Submission begin(long offset) {
+        return tracker.begin(offset, ack(offset));
+    }
+
+    private Acknowledgment ack(long offset) {
+        return () -> acknowledged.add(offset);
+    }
+}
@@ -0,0 +1,212 @@
+package com.tejas.pmfilesync5g.service;
+
+import com.tejas.pmfilesync5g.service.TarHeaderWalker.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tejas.pmfilesync5g.service.TarHeaderWalker.BLOCK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TarHeaderWalkerTest {
+
+    private static final int SIZE_OFFSET = 124;
+    private static final int CHECKSUM_OFFSET = 148;
+    private static final int TYPE_OFFSET = 156;
+    private static final int MAGIC_OFFSET = 257;
+    private static final int PREFIX_OFFSET = 345;
+
+    @Test
+    void listsRegularMembersWithTheirDataOffsets() throws IOException {
+        TarBuilder tar = new TarBuilder()
+            .file("a.xml", 10)
+            .member(header("dir/", 0, '5'), new byte[0])
+            .file("b.xml", 600)
+            .end();
+
+        assertThat(TarHeaderWalker.list(tar.reader())).containsExactly(
+            new Entry("a.xml", 10, 512),
+            new Entry("b.xml", 600, 2048));
+    }
+
+    @Test
+    void joinsTheUstarPrefixAndName() throws IOException {
+        byte[] header = header("A20240101.xml", 4, '0');
+        put(header, PREFIX_OFFSET, "pm/du");
+        checksum(header);
+        TarBuilder tar = new TarBuilder().member(header, new byte[4]).end();
+
+        assertThat(TarHeaderWalker.list(tar.reader())).extracting(Entry::name).containsExactly("pm/du/A20240101.xml");
+    }
+
+    @Test
+    void gnuLongNameAppliesToTheNextMemberOnly() throws IOException {
+        String longName = "pm/" + "x".repeat(150) + ".xml";
+        byte[] payload = (longName + "\0").getBytes(StandardCharsets.UTF_8);
+        TarBuilder tar = new TarBuilder()
+            .member(header("././@LongLink", payload.length, 'L'), payload)
+            .file(longName.substring(0, 100), 3)
+            .file("short.xml", 3)
+            .end();
+
+        assertThat(TarHeaderWalker.list(tar.reader())).containsExactly(
+            new Entry(longName, 3, 3 * BLOCK_SIZE),
+            new Entry("short.xml", 3, 5 * BLOCK_SIZE));
+    }
+
+    @Test
+    void paxHeaderOverridesPathAndSize() throws IOException {
+        byte[] payload = (paxRecord("path", "pm/cu/long-name.xml") + paxRecord("mtime", "1700000000.5")
+            + paxRecord("size", "700")).getBytes(StandardCharsets.UTF_8);
+        TarBuilder tar = new TarBuilder()
+            .member(header("PaxHeaders/long-name.xml", payload.length, 'x'), payload)
+            .member(header("long-name.xml", 0, '0'), new byte[700])
+            .file("next.xml", 1)
+            .end();
+
+        assertThat(TarHeaderWalker.list(tar.reader())).containsExactly(
+            new Entry("pm/cu/long-name.xml", 700, 3 * BLOCK_SIZE),
+            new Entry("next.xml", 1, 6 * BLOCK_SIZE));
+    }
+
+    @Test
+    void readsBase256Sizes() throws IOException {
+        long size = 8L * 1024 * 1024 * 1024;
+        byte[] header = header("huge.xml", 0, '0');
+        Arrays.fill(header, SIZE_OFFSET, SIZE_OFFSET + 12, (byte) 0);
+        header[SIZE_OFFSET] = (byte) 0x80;
+        for (int i = 0; i < 8; i++) {
+            header[SIZE_OFFSET + 11 - i] = (byte) (size >>> (8 * i));
+        }
+        checksum(header);
+        TarBuilder tar = new TarBuilder().member(header, new byte[0]);
+
+        assertThat(TarHeaderWalker.list(tar.reader())).containsExactly(new Entry("huge.xml", size, BLOCK_SIZE));
+    }
+
+    @Test
+    void rejectsNegativeBase256Sizes() {
+        byte[] header = header("negative.xml", 0, '0');
+        header[SIZE_OFFSET] = (byte) 0xff;
+        checksum(header);
+        TarBuilder tar = new TarBuilder().member(header, new byte[0]).end();
+
+        assertThatThrownBy(() -> TarHeaderWalker.list(tar.reader()))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Negative");
+    }
+
+    @Test
+    void rejectsHeadersWithABadChecksum() {
+        byte[] header = header("a.xml", 1, '0');
+        header[0] = 'b';
+        TarBuilder tar = new TarBuilder().file("ok.xml", 1).member(header, new byte[1]).end();
+
+        assertThatThrownBy(() -> TarHeaderWalker.list(tar.reader()))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Invalid tar header checksum at offset 1024");
+    }
+
+    @Test
+    void rejectsTruncatedHeaders() {
+        TarBuilder tar = new TarBuilder().file("a.xml", 1);
+        byte[] archive = Arrays.copyOf(tar.bytes(), 2 * BLOCK_SIZE + 100);
+
+        assertThatThrownBy(() -> TarHeaderWalker.list(reader(archive, BLOCK_SIZE)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Truncated tar header");
+    }
+
+    @Test
+    void toleratesArchivesWithoutEndBlocksAndShortReads() throws IOException {
+        TarBuilder tar = new TarBuilder().file("a.xml", 700).file("b.xml", 1);
+
+        List<Entry> entries = TarHeaderWalker.list(reader(tar.bytes(), 7));
+
+        assertThat(entries).extracting(Entry::name).containsExactly("a.xml", "b.xml");
+    }
+
+    private static byte[] header(String name, long size, char type) {
+        byte[] header = new byte[BLOCK_SIZE];
+        put(header, 0, name);
+        put(header, SIZE_OFFSET, String.format("%011o", size));
+        header[TYPE_OFFSET] = (byte) type;
+        put(header, MAGIC_OFFSET, "ustar\0" + "00");
+        checksum(header);
+        return header;
+    }
+
+    private static void checksum(byte[] header) {
+        Arrays.fill(header, CHECKSUM_OFFSET, CHECKSUM_OFFSET + 8, (byte) ' ');
+        long sum = 0;
+        for (byte b : header) {
+            sum += b & 0xff;
+        }
+        put(header, CHECKSUM_OFFSET, String.format("%06o\0", sum));
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    /**
+     * A pax record is prefixed by its own length in bytes, including that prefix.
+     */
+    private static String paxRecord(String key, String value) {
+        String body = " " + key + "=" + value + "\n";
+        int length = body.length() + 1;
+        while (length != String.valueOf(length).length() + body.length()) {
+            length++;
+        }
+        return length + body;
+    }
+
+    /**
+     * Serves the archive at most {@code chunk} bytes per read, like a ranged SFTP read would.
+     */
+    private static TarHeaderWalker.RangeReader reader(byte[] archive, int chunk) {
+        return (position, buffer, offset, length) -> {
+            if (position >= archive.length) {
+                return -1;
+            }
+            int n = (int) Math.min(Math.min(length, chunk), archive.length - position);
+            System.arraycopy(archive, (int) position, buffer, offset, n);
+            return n;
+        };
+    }
+
+    private static final class TarBuilder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TarBuilder file(String name, int size) {
+            return member(header(name, size, '0'), new byte[size]);
+        }
+
+        TarBuilder member(byte[] header, byte[] data) {
+            out.writeBytes(header);
+            out.writeBytes(data);
+            out.writeBytes(new byte[(int) (TarHeaderWalker.paddedSize(data.length) - data.length)]);
+            return this;
+        }
+
+        TarBuilder end() {
+            out.writeBytes(new byte[2 * BLOCK_SIZE]);
+            return this;
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+
+        TarHeaderWalker.RangeReader reader() {
+            return TarHeaderWalkerTest.reader(bytes(), Integer.MAX_VALUE);
+        }
+    }
+}